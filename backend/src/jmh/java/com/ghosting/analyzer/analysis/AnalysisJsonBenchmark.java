@@ -0,0 +1,47 @@
+package com.ghosting.analyzer.analysis;
+
+import com.ghosting.analyzer.bench.Fixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnalysisJsonBenchmark {
+
+    private String aiJson;
+    private AnalysisResult engineResult;
+    private AnalysisResult aiResult;
+
+    @Setup
+    public void setup() {
+        aiJson = AnalysisJson.extractJsonObject(Fixtures.aiResponse());
+        engineResult = new GhostingAnalyzerEngine().analyze(Fixtures.cv("medium"), Fixtures.jd("medium"));
+        aiResult = AnalysisJson.parse(aiJson);
+    }
+
+    @Benchmark
+    public AnalysisResult parseAi() {
+        return AnalysisJson.parse(aiJson);
+    }
+
+    @Benchmark
+    public String writeEngine() {
+        return AnalysisJson.write(engineResult);
+    }
+
+    // enrichment yolu: AI parse + engine skorları + tek serialize
+    @Benchmark
+    public String parseMergeWrite() {
+        return AnalysisJson.write(AnalysisJson.parse(aiJson).withScores(engineResult));
+    }
+
+    @Benchmark
+    public AnalysisResult mergeScores() {
+        return aiResult.withScores(engineResult);
+    }
+}
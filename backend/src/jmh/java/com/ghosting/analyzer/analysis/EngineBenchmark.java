@@ -0,0 +1,62 @@
+package com.ghosting.analyzer.analysis;
+
+import com.ghosting.analyzer.bench.Fixtures;
+import com.ghosting.analyzer.cv.CvTokenIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EngineBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    private final GhostingAnalyzerEngine engine = new GhostingAnalyzerEngine();
+
+    private String cv;
+    private String jd;
+    private CvTokenIndex cvIndex;
+    private List<String> jdKeywords;
+
+    @Setup
+    public void setup() {
+        cv = Fixtures.cv(size);
+        jd = Fixtures.jd(size);
+        cvIndex = CvTokenIndex.build(cv);
+        jdKeywords = KeywordExtractor.extract(jd);
+    }
+
+    // upload'ta hazırlanmış index ile (controller yolu)
+    @Benchmark
+    public AnalysisResult analyzeWithIndex() {
+        return engine.analyze(cv, cvIndex, jd);
+    }
+
+    // index yok: Aho-Corasick ile CV taraması
+    @Benchmark
+    public AnalysisResult analyzeRawText() {
+        return engine.analyze(cv, jd);
+    }
+
+    @Benchmark
+    public List<String> extractKeywords() {
+        return KeywordExtractor.extract(jd);
+    }
+
+    @Benchmark
+    public KeywordMatcher.Result matchKeywords() {
+        return KeywordMatcher.compile(jdKeywords).scan(cv);
+    }
+
+    @Benchmark
+    public CvTokenIndex buildCvIndex() {
+        return CvTokenIndex.build(cv);
+    }
+}
@@ -0,0 +1,47 @@
+package com.ghosting.analyzer.analysis;
+
+import com.ghosting.analyzer.bench.Fixtures;
+import com.ghosting.analyzer.text.SkillDictionary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromptBuilderBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    private final AiPromptBuilder builder = new AiPromptBuilder(2000, 1200, new SimpleMeterRegistry());
+
+    private String cv;
+    private String jd;
+
+    @Setup
+    public void setup() {
+        cv = Fixtures.cv(size);
+        jd = Fixtures.jd(size);
+    }
+
+    @Benchmark
+    public AiPromptBuilder.Prompt build() {
+        return builder.build(cv, jd, "TR", "Acme Corp", "Senior Backend Engineer");
+    }
+
+    // sıkıştırma tek başına (bölme + puanlama + paketleme)
+    @Benchmark
+    public PromptBudget.Packed packCv() {
+        return PromptBudget.pack(cv, jd, 2000, SkillDictionary.bundled());
+    }
+
+    @Benchmark
+    public int estimateTokens() {
+        return PromptBudget.estimateTokens(cv);
+    }
+}
@@ -0,0 +1,34 @@
+package com.ghosting.analyzer.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+// src/jmh/resources/fixtures altındaki örnek CV / ilan / AI cevapları
+public final class Fixtures {
+
+    private Fixtures() {}
+
+    // size: small | medium | large (large > 20k karakter)
+    public static String cv(String size) {
+        return load("cv-" + size + ".txt");
+    }
+
+    public static String jd(String size) {
+        return load("jd-" + size + ".txt");
+    }
+
+    public static String aiResponse() {
+        return load("ai-response.json");
+    }
+
+    private static String load(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) throw new IllegalStateException("Missing fixture: " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
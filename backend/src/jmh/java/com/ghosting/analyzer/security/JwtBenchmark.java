@@ -0,0 +1,52 @@
+package com.ghosting.analyzer.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+// cacheMaxEntries=0 -> her istekte HMAC doğrulama + claim parse (önceki davranış)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private static final String SECRET = "ghosting-analyzer-super-secret-key-which-must-be-at-least-64-characters-long-123456";
+
+    @Param({"0", "10000"})
+    public int cacheMaxEntries;
+
+    private JwtService jwtService;
+    private JwtAuthFilter filter;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = new JwtService(SECRET, 10080, cacheMaxEntries);
+        filter = new JwtAuthFilter(jwtService, "");
+        token = jwtService.generateAccessToken("7b0d5c4e-3a51-4f0e-9a7c-2f8f1b9a6d21", "bench@example.com");
+    }
+
+    @Benchmark
+    public JwtService.JwtUser parse() {
+        return jwtService.parse(token);
+    }
+
+    // filtrenin istek başına maliyeti (mock request/response kurulumu dahil)
+    @Benchmark
+    public Object authFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/analyses");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+}
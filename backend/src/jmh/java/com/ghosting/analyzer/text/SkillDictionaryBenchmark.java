@@ -0,0 +1,57 @@
+package com.ghosting.analyzer.text;
+
+import com.ghosting.analyzer.bench.Fixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// compile: taxonomy -> trie (açılış maliyeti), scan*: metin başına tek geçiş.
+// Bellek: setup'ta footprintBytes() yazdırılır; allocation için -prof gc.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SkillDictionaryBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    private String taxonomy;
+    private SkillDictionary dictionary;
+    private String cv;
+    private String jd;
+
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream in = SkillDictionary.class.getClassLoader().getResourceAsStream(SkillDictionary.RESOURCE)) {
+            taxonomy = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        dictionary = SkillDictionary.parse(new StringReader(taxonomy));
+        cv = Fixtures.cv(size);
+        jd = Fixtures.jd(size);
+        System.out.println("[BENCH] skills=" + dictionary.size() + " footprint=" + dictionary.footprintBytes() + " bytes");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public SkillDictionary compile() throws IOException {
+        return SkillDictionary.parse(new StringReader(taxonomy));
+    }
+
+    @Benchmark
+    public SkillDictionary.Hits scanCv() {
+        return dictionary.scan(cv);
+    }
+
+    @Benchmark
+    public SkillDictionary.Hits scanJd() {
+        return dictionary.scan(jd);
+    }
+}
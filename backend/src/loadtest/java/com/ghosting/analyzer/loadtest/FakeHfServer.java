@@ -0,0 +1,209 @@
+package com.ghosting.analyzer.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// HF router (OpenAI uyumlu POST /v1/chat/completions) yerine geçen gömülebilir sahte sunucu; sadece JDK HttpServer.
+// Her istekte: latency dağılımından gecikme -> errorRate429 ihtimalle 429, loadingRate ihtimalle 503 "currently loading",
+// değilse canned içerik (stream: true ise SSE delta'ları, parça başına tokenDelayMs).
+// Ayarlar start()'tan önce verilir; sayaçlar load test raporu için.
+public final class FakeHfServer implements AutoCloseable {
+
+    // lognormal: medyan + p99 ile tanımlanır (p99 <= medyan -> sabit)
+    public record Latency(double medianMs, double p99Ms) {
+
+        private static final double Z99 = 2.326;
+
+        public static Latency fixed(double ms) {
+            return new Latency(ms, ms);
+        }
+
+        long sampleMs() {
+            if (medianMs <= 0) return 0;
+            if (p99Ms <= medianMs) return (long) medianMs;
+            double sigma = Math.log(p99Ms / medianMs) / Z99;
+            return (long) (medianMs * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+        }
+    }
+
+    private static final int CHUNK_CHARS = 16; // stream parça boyu (~4 token)
+
+    private final ObjectMapper om = new ObjectMapper();
+
+    private String content = "{}";
+    private Latency latency = Latency.fixed(0);
+    private long tokenDelayMs = 0;
+    private double errorRate429 = 0;
+    private double loadingRate = 0;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong streamed = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong loading = new AtomicLong();
+
+    // modelin döndüreceği metin (genelde analiz JSON'u)
+    public FakeHfServer content(String content) {
+        this.content = content;
+        return this;
+    }
+
+    // ilk byte'a kadar gecikme (prefill)
+    public FakeHfServer latency(Latency latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    // stream'de parçalar arası gecikme
+    public FakeHfServer tokenDelayMs(long tokenDelayMs) {
+        this.tokenDelayMs = tokenDelayMs;
+        return this;
+    }
+
+    public FakeHfServer errorRate429(double rate) {
+        this.errorRate429 = rate;
+        return this;
+    }
+
+    public FakeHfServer loadingRate(double rate) {
+        this.loadingRate = rate;
+        return this;
+    }
+
+    // port 0 -> boş port
+    public FakeHfServer start(int port) throws IOException {
+        AtomicInteger seq = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "fake-hf-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 256);
+        server.createContext("/v1/chat/completions", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        return this;
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions";
+    }
+
+    public Map<String, Long> counters() {
+        return Map.of("requests", requests.get(), "streamed", streamed.get(),
+                "throttled", throttled.get(), "loading", loading.get());
+    }
+
+    @Override
+    public void close() {
+        if (server != null) server.stop(0);
+        if (executor != null) executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        try {
+            requests.incrementAndGet();
+            if (!"POST".equals(ex.getRequestMethod())) {
+                send(ex, 405, "{\"error\":\"Method not allowed\"}");
+                return;
+            }
+
+            JsonNode req;
+            try {
+                req = om.readTree(ex.getRequestBody().readAllBytes());
+            } catch (IOException e) {
+                send(ex, 400, "{\"error\":\"Invalid JSON\"}");
+                return;
+            }
+            String model = req.path("model").asText("fake-model");
+
+            sleep(latency.sampleMs());
+
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < errorRate429) {
+                throttled.incrementAndGet();
+                send(ex, 429, "{\"error\":\"Too Many Requests: rate limit reached\"}");
+                return;
+            }
+            if (roll < errorRate429 + loadingRate) {
+                loading.incrementAndGet();
+                send(ex, 503, om.writeValueAsString(Map.of(
+                        "error", "Model " + model + " is currently loading",
+                        "estimated_time", 20.0)));
+                return;
+            }
+
+            if (req.path("stream").asBoolean(false)) {
+                streamed.incrementAndGet();
+                stream(ex, model);
+            } else {
+                send(ex, 200, om.writeValueAsString(Map.of(
+                        "id", "chatcmpl-" + UUID.randomUUID(),
+                        "object", "chat.completion",
+                        "model", model,
+                        "choices", List.of(Map.of(
+                                "index", 0,
+                                "message", Map.of("role", "assistant", "content", content),
+                                "finish_reason", "stop")))));
+            }
+        } finally {
+            ex.close();
+        }
+    }
+
+    private void stream(HttpExchange ex, String model) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", "text/event-stream");
+        ex.getResponseHeaders().set("Cache-Control", "no-cache");
+        ex.sendResponseHeaders(200, 0); // chunked
+
+        String id = "chatcmpl-" + UUID.randomUUID();
+        OutputStream out = ex.getResponseBody();
+        for (int i = 0; i < content.length(); i += CHUNK_CHARS) {
+            String part = content.substring(i, Math.min(content.length(), i + CHUNK_CHARS));
+            String chunk = om.writeValueAsString(Map.of(
+                    "id", id,
+                    "object", "chat.completion.chunk",
+                    "model", model,
+                    "choices", List.of(Map.of("index", 0, "delta", Map.of("content", part)))));
+            out.write(("data: " + chunk + "\n\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            sleep(tokenDelayMs);
+        }
+        out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static void send(HttpExchange ex, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json");
+        ex.sendResponseHeaders(status, body.length);
+        ex.getResponseBody().write(body);
+    }
+
+    private static void sleep(long ms) {
+        if (ms <= 0) return;
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
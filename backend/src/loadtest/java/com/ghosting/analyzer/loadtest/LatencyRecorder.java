@@ -0,0 +1,63 @@
+package com.ghosting.analyzer.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Endpoint başına ham gecikme örnekleri (µs) + status dağılımı; yüzdelikler rapor anında sıralanarak hesaplanır.
+// Bir koşu en fazla birkaç yüz bin örnek -> histogram yerine düz dizi yeterli.
+final class LatencyRecorder {
+
+    record Stats(String endpoint, long count, long errors, double throughputPerSec,
+                 double p50Ms, double p95Ms, double p99Ms, double maxMs, Map<Integer, Long> statuses) {}
+
+    private static final class Series {
+        long[] micros = new long[1024];
+        int size;
+        long errors;
+        final Map<Integer, Long> statuses = new TreeMap<>();
+
+        synchronized void add(long us, int status) {
+            if (size == micros.length) micros = Arrays.copyOf(micros, size * 2);
+            micros[size++] = us;
+            statuses.merge(status, 1L, Long::sum);
+            if (status < 200 || status >= 400) errors++;
+        }
+    }
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    // status: HTTP kodu; istek hiç cevap alamadıysa 0 (hata sayılır)
+    void record(String endpoint, long nanos, int status) {
+        series.computeIfAbsent(endpoint, k -> new Series()).add(nanos / 1_000, status);
+    }
+
+    Map<String, Stats> snapshot(double elapsedSeconds) {
+        Map<String, Stats> out = new LinkedHashMap<>();
+        new TreeMap<>(series).forEach((endpoint, s) -> {
+            long[] sorted;
+            long errors;
+            Map<Integer, Long> statuses;
+            synchronized (s) {
+                sorted = Arrays.copyOf(s.micros, s.size);
+                errors = s.errors;
+                statuses = new TreeMap<>(s.statuses);
+            }
+            Arrays.sort(sorted);
+            out.put(endpoint, new Stats(endpoint, sorted.length, errors,
+                    elapsedSeconds > 0 ? sorted.length / elapsedSeconds : 0,
+                    percentileMs(sorted, 0.50), percentileMs(sorted, 0.95), percentileMs(sorted, 0.99),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1000.0, statuses));
+        });
+        return out;
+    }
+
+    // nearest-rank
+    private static double percentileMs(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1000.0;
+    }
+}
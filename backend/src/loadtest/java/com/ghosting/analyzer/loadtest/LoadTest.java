@@ -0,0 +1,312 @@
+package com.ghosting.analyzer.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ghosting.analyzer.GhostingAnalyzerApiApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Uçtan uca load test: register -> login -> CV upload -> analysesPerFlow x (analyze + sonuç gelene kadar poll).
+// Akışlar rate/sn sabit hızda başlatılır (open loop); concurrency dolunca yeni akış başlatılmaz, "dropped" sayılır.
+// baseUrl verilmezse uygulama aynı JVM'de, HF yerine FakeHfServer'a bağlı olarak ayağa kalkar -> internet gerekmez
+// (sadece docker-compose'daki yerel Postgres). Rapor: endpoint başına p50/p95/p99 + throughput, JSON olarak --out'a.
+//
+//   mvn -Ploadtest verify -Dload.args="--rate=5 --durationSeconds=60 --hfMedianMs=800 --hf429Rate=0.05"
+//
+// --app.* / --spring.* / --server.* argümanları olduğu gibi gömülü uygulamaya geçer.
+public final class LoadTest {
+
+    private static final String E2E = "analysis (submit -> done)";
+
+    private final Map<String, String> opts;
+    private final ObjectMapper om = new ObjectMapper();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicInteger flowSeq = new AtomicInteger();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final Map<String, AtomicLong> outcomes = new ConcurrentHashMap<>();
+
+    private final String cv = fixture("cv-medium.txt");
+    private final String jd = fixture("jd-medium.txt");
+
+    private String baseUrl;
+
+    private LoadTest(Map<String, String> opts) {
+        this.opts = opts;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new LinkedHashMap<>();
+        Map<String, String> appArgs = new LinkedHashMap<>();
+        for (String a : args) {
+            if (!a.startsWith("--") || !a.contains("=")) throw new IllegalArgumentException("Expected --key=value, got: " + a);
+            String key = a.substring(2, a.indexOf('='));
+            String value = a.substring(a.indexOf('=') + 1);
+            if (key.startsWith("app.") || key.startsWith("spring.") || key.startsWith("server.")) appArgs.put(key, value);
+            else opts.put(key, value);
+        }
+        new LoadTest(opts).run(appArgs);
+        // gömülü uygulamanın non-daemon thread'leri kapanışı bekletmesin
+        System.exit(0);
+    }
+
+    private void run(Map<String, String> appArgs) throws Exception {
+        FakeHfServer fake = null;
+        ConfigurableApplicationContext app = null;
+        try {
+            baseUrl = opt("baseUrl", "");
+            if (baseUrl.isBlank()) {
+                fake = new FakeHfServer()
+                        .content(fixture("ai-response.json"))
+                        .latency(new FakeHfServer.Latency(num("hfMedianMs", 800), num("hfP99Ms", 3000)))
+                        .tokenDelayMs((long) num("hfTokenDelayMs", 5))
+                        .errorRate429(num("hf429Rate", 0.02))
+                        .loadingRate(num("hfLoadingRate", 0.01))
+                        .start(0);
+                System.out.println("[LOAD] Fake HF router at " + fake.url());
+
+                // komut satırında aynı anahtar iki kez olursa Spring değerleri birleştirir -> override anahtarla
+                Map<String, String> props = new LinkedHashMap<>();
+                props.put("server.port", "0");
+                props.put("app.ai.hf.url", fake.url());
+                props.put("app.ai.hf.apiKey", "loadtest");
+                props.put("app.ai.stream.enabled", opt("hfStream", "true"));
+                props.putAll(appArgs);
+                String[] args = props.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new);
+                app = new SpringApplication(GhostingAnalyzerApiApplication.class).run(args);
+                baseUrl = "http://127.0.0.1:" + app.getEnvironment().getProperty("local.server.port");
+            }
+            System.out.println("[LOAD] Target " + baseUrl);
+
+            double elapsed = drive(num("rate", 2), (long) num("durationSeconds", 60), (int) num("concurrency", 64));
+            report(elapsed, fake);
+        } finally {
+            if (app != null) app.close();
+            if (fake != null) fake.close();
+        }
+    }
+
+    // akışları rate/sn ile başlatır; süre bitince kalanların bitmesini bekler. Dönüş: geçen süre (sn)
+    private double drive(double rate, long durationSeconds, int concurrency) throws InterruptedException {
+        Semaphore slots = new Semaphore(concurrency);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency, daemon("load-worker"));
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(daemon("load-scheduler"));
+
+        System.out.println("[LOAD] " + rate + " flows/s for " + durationSeconds + "s (max " + concurrency + " in flight)");
+        long t0 = System.nanoTime();
+        scheduler.scheduleAtFixedRate(() -> {
+            if (!slots.tryAcquire()) {
+                dropped.incrementAndGet();
+                return;
+            }
+            started.incrementAndGet();
+            workers.execute(() -> {
+                try {
+                    flow(flowSeq.incrementAndGet());
+                } catch (Exception e) {
+                    outcome("flow error: " + e.getClass().getSimpleName());
+                } finally {
+                    slots.release();
+                }
+            });
+        }, 0, (long) (1_000_000_000L / rate), TimeUnit.NANOSECONDS);
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+        scheduler.shutdownNow();
+        workers.shutdown();
+        if (!workers.awaitTermination((long) num("drainSeconds", 120), TimeUnit.SECONDS)) {
+            System.out.println("[LOAD] Drain timed out, " + (concurrency - slots.availablePermits()) + " flows still running");
+            workers.shutdownNow();
+        }
+        return (System.nanoTime() - t0) / 1e9;
+    }
+
+    private void flow(int n) throws Exception {
+        String email = "load-" + runId + "-" + n + "@loadtest.local";
+        String password = "loadtest-" + n;
+        String credentials = om.writeValueAsString(Map.of("email", email, "password", password));
+
+        if (send("POST /api/auth/register", json("/api/auth/register", credentials, null)).statusCode() != 200) return;
+
+        HttpResponse<String> login = send("POST /api/auth/login", json("/api/auth/login", credentials, null));
+        if (login.statusCode() != 200) return;
+        String token = om.readTree(login.body()).path("accessToken").asText();
+
+        HttpResponse<String> upload = send("POST /api/cvs", multipart("/api/cvs", "cv-" + n + ".txt", cv, token));
+        if (upload.statusCode() != 200) return;
+        String cvId = om.readTree(upload.body()).path("cvId").asText();
+
+        long pollMs = (long) num("pollMs", 250);
+        long timeoutNanos = TimeUnit.SECONDS.toNanos((long) num("analysisTimeoutSeconds", 90));
+        int analyses = (int) num("analysesPerFlow", 3);
+        boolean uniqueJd = Boolean.parseBoolean(opt("uniqueJd", "true"));
+
+        for (int i = 0; i < analyses; i++) {
+            // aynı ilan AI cache'inden döner; HF yükü isteniyorsa her analiz farklı
+            String jobDescription = uniqueJd ? jd + "\n\nRef: " + runId + "-" + n + "-" + i : jd;
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("cvId", cvId);
+            body.put("jobDescription", jobDescription);
+            body.put("company", "Load Test Ltd");
+            body.put("jobTitle", "Backend Engineer");
+            body.put("country", "TR");
+
+            long t0 = System.nanoTime();
+            HttpResponse<String> submitted = send("POST /api/analyses", json("/api/analyses", om.writeValueAsString(body), token));
+            if (submitted.statusCode() != 200 && submitted.statusCode() != 202) {
+                outcome("rejected " + submitted.statusCode());
+                continue;
+            }
+            JsonNode res = om.readTree(submitted.body());
+            String id = res.path("analysisId").asText();
+            String status = res.path("status").asText();
+
+            while ("PENDING".equals(status) && System.nanoTime() - t0 < timeoutNanos) {
+                Thread.sleep(pollMs);
+                HttpResponse<String> polled = send("GET /api/analyses/{id}", get("/api/analyses/" + id, token));
+                if (polled.statusCode() == 200) status = om.readTree(polled.body()).path("status").asText();
+            }
+
+            boolean done = !"PENDING".equals(status);
+            recorder.record(E2E, System.nanoTime() - t0, done ? 200 : 0);
+            outcome(done ? status : "TIMEOUT");
+        }
+        completed.incrementAndGet();
+    }
+
+    // istek süresi endpoint adıyla kaydedilir; bağlantı hatası status 0
+    private HttpResponse<String> send(String endpoint, HttpRequest request) throws InterruptedException {
+        long t0 = System.nanoTime();
+        try {
+            HttpResponse<String> res = http.send(request, HttpResponse.BodyHandlers.ofString());
+            recorder.record(endpoint, System.nanoTime() - t0, res.statusCode());
+            return res;
+        } catch (IOException e) {
+            recorder.record(endpoint, System.nanoTime() - t0, 0);
+            throw new UncheckedIOException(endpoint + " failed", e);
+        }
+    }
+
+    private HttpRequest json(String path, String body, String token) {
+        return request(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest multipart(String path, String filename, String text, String token) {
+        String boundary = "----load" + UUID.randomUUID().toString().replace("-", "");
+        String body = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + filename + "\"\r\n"
+                + "Content-Type: text/plain; charset=UTF-8\r\n\r\n"
+                + text + "\r\n"
+                + "--" + boundary + "--\r\n";
+        return request(path, token)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+        if (token != null) b.header("Authorization", "Bearer " + token);
+        return b;
+    }
+
+    private void outcome(String key) {
+        outcomes.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    private void report(double elapsed, FakeHfServer fake) throws IOException {
+        Map<String, LatencyRecorder.Stats> stats = recorder.snapshot(elapsed);
+
+        System.out.printf("[LOAD] %.1fs, flows started=%d completed=%d dropped=%d%n", elapsed, started.get(), completed.get(), dropped.get());
+        System.out.printf("[LOAD] %-28s %8s %7s %9s %9s %9s %9s %9s%n", "endpoint", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (LatencyRecorder.Stats s : stats.values()) {
+            System.out.printf("[LOAD] %-28s %8d %7d %9.2f %9.1f %9.1f %9.1f %9.1f  %s%n", s.endpoint(), s.count(), s.errors(),
+                    s.throughputPerSec(), s.p50Ms(), s.p95Ms(), s.p99Ms(), s.maxMs(), s.statuses());
+        }
+        Map<String, Long> outcomeCounts = new LinkedHashMap<>();
+        outcomes.forEach((k, v) -> outcomeCounts.put(k, v.get()));
+        System.out.println("[LOAD] Analysis outcomes: " + outcomeCounts);
+        if (fake != null) System.out.println("[LOAD] Fake HF: " + fake.counters());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("runId", runId);
+        result.put("options", opts);
+        result.put("elapsedSeconds", elapsed);
+        result.put("flows", Map.of("started", started.get(), "completed", completed.get(), "dropped", dropped.get()));
+        result.put("outcomes", outcomeCounts);
+        result.put("endpoints", stats.values());
+        if (fake != null) result.put("fakeHf", fake.counters());
+
+        Path out = Path.of(opt("out", "target/loadtest-result.json"));
+        if (out.getParent() != null) Files.createDirectories(out.getParent());
+        om.enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), result);
+        System.out.println("[LOAD] Result written to " + out.toAbsolutePath());
+    }
+
+    private String opt(String key, String def) {
+        return opts.getOrDefault(key, def);
+    }
+
+    private double num(String key, double def) {
+        String v = opts.get(key);
+        return v == null || v.isBlank() ? def : Double.parseDouble(v);
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    // src/jmh/resources/fixtures (benchmark'larla aynı örnekler)
+    private static String fixture(String name) {
+        try (InputStream in = LoadTest.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) throw new IllegalStateException("Missing fixture: " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
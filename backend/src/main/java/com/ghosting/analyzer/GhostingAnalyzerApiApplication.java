@@ -2,10 +2,14 @@ package com.ghosting.analyzer;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication(scanBasePackages = "com.ghosting.analyzer")
 public class GhostingAnalyzerApiApplication {
     public static void main(String[] args) {
-        SpringApplication.run(GhostingAnalyzerApiApplication.class, args);
+        SpringApplication app = new SpringApplication(GhostingAnalyzerApiApplication.class);
+        // startup adımları /actuator/startup'ta (release başına time-to-ready takibi)
+        app.setApplicationStartup(new BufferingApplicationStartup(4096));
+        app.run(args);
     }
 }
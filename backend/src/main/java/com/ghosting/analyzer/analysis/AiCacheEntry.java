@@ -0,0 +1,35 @@
+package com.ghosting.analyzer.analysis;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "ai_result_cache", indexes = @Index(name = "idx_ai_result_cache_created_at", columnList = "created_at"))
+public class AiCacheEntry {
+
+    // sha-256(model + prompt), hex
+    @Id
+    @Column(name = "cache_key", length = 64)
+    private String cacheKey;
+
+    @Column(nullable = false)
+    private String model;
+
+    @Column(name = "ai_json", nullable = false, columnDefinition = "text")
+    private String aiJson;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) createdAt = Instant.now();
+    }
+}
@@ -0,0 +1,5 @@
+package com.ghosting.analyzer.analysis;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AiCacheEntryRepository extends JpaRepository<AiCacheEntry, String> {}
@@ -1,16 +1,60 @@
 package com.ghosting.analyzer.analysis;
 
+import com.ghosting.analyzer.text.SkillDictionary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.TimeUnit;
+
+// CV, PromptBudget ile JD'ye en ilgili parçalara sıkıştırılır (cvTokenBudget); JD satır sınırında kesilir (jdTokenBudget).
+// Prompt boyutu öncesi/sonrası ai.prompt.tokens{stage} ile raporlanır. HF gecikmesi input token'la ölçeklendiği için
+// gözlenen ms/token (recordLatency) ile kazanılan süre tahmin edilir: ai.prompt.latency_saved (ms).
+// Metrikler sadece HF'e gerçekten giden prompt'lar için yazılır (recordSent); cache hit / coalesced takipçi sayılmaz.
 @Component
 public class AiPromptBuilder {
 
-    public String build(String cvText, String jdText, String country, String company, String jobTitle) {
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final int cvTokenBudget;
+    private final int jdTokenBudget;
+    private final SkillDictionary skills = SkillDictionary.bundled();
+
+    private final DistributionSummary tokensBefore;
+    private final DistributionSummary tokensAfter;
+    private final Counter latencySavedMs;
+
+    // gözlenen HF gecikmesi / prompt token (EWMA); 0 = henüz ölçüm yok
+    private volatile double nanosPerToken;
+
+    public AiPromptBuilder(
+            @Value("${app.ai.prompt.cvTokenBudget:2000}") int cvTokenBudget,
+            @Value("${app.ai.prompt.jdTokenBudget:1200}") int jdTokenBudget,
+            MeterRegistry registry
+    ) {
+        this.cvTokenBudget = cvTokenBudget;
+        this.jdTokenBudget = jdTokenBudget;
+        this.tokensBefore = DistributionSummary.builder("ai.prompt.tokens").tag("stage", "before")
+                .description("Tahmini prompt token sayısı (sıkıştırma öncesi / sonrası)").register(registry);
+        this.tokensAfter = DistributionSummary.builder("ai.prompt.tokens").tag("stage", "after").register(registry);
+        this.latencySavedMs = Counter.builder("ai.prompt.latency_saved")
+                .description("Sıkıştırmayla kazanılan tahmini HF süresi (ms)").baseUnit("milliseconds").register(registry);
+    }
+
+    // estimatedSavedMs: gözlenen ms/token ile; henüz ölçüm yoksa 0
+    public record Prompt(String text, int tokensBefore, int tokensAfter, int cvSegmentsKept, int cvSegmentsTotal, long estimatedSavedMs) {}
+
+    public Prompt build(String cvText, String jdText, String country, String company, String jobTitle) {
         String c = (country == null || country.isBlank()) ? "TR" : country.trim();
         String comp = (company == null || company.isBlank()) ? "Unknown" : company.trim();
         String jt = (jobTitle == null || jobTitle.isBlank()) ? "Unknown" : jobTitle.trim();
 
-        return """
+        PromptBudget.Packed cv = PromptBudget.pack(cvText, jdText, cvTokenBudget, skills);
+        String jd = truncate(jdText, jdTokenBudget);
+
+        String prompt = """
 You are a brutally honest senior technical recruiter + ATS expert.
 
 TASK:
@@ -39,7 +83,7 @@ Country: %s
 Company: %s
 JobTitle: %s
 
-CV TEXT:
+CV TEXT (parts less relevant to the job are omitted as [...]):
 <<<
 %s
 >>>
@@ -50,13 +94,56 @@ JOB DESCRIPTION:
 >>>
 
 Return ONLY JSON now.
-""".formatted(c, comp, jt, safe(cvText), safe(jdText));
+""".formatted(c, comp, jt, cv.text(), jd);
+
+        int fixed = PromptBudget.estimateTokens(prompt) - cv.tokensAfter();
+        int before = fixed + cv.tokensBefore() + PromptBudget.estimateTokens(jdText) - PromptBudget.estimateTokens(jd);
+        int after = fixed + cv.tokensAfter();
+
+        long savedMs = 0;
+        double perToken = nanosPerToken;
+        if (before > after && perToken > 0) {
+            savedMs = TimeUnit.NANOSECONDS.toMillis((long) ((before - after) * perToken));
+        }
+        return new Prompt(prompt, before, after, cv.segmentsKept(), cv.segmentsTotal(), savedMs);
+    }
+
+    // HF çağrısından hemen önce
+    public void recordSent(Prompt prompt) {
+        tokensBefore.record(prompt.tokensBefore());
+        tokensAfter.record(prompt.tokensAfter());
+        if (prompt.estimatedSavedMs() > 0) latencySavedMs.increment(prompt.estimatedSavedMs());
+    }
+
+    // HF çağrısı süresi (stream'de ilk token'a kadar = prefill) -> ms/token tahmini güncellenir
+    public void recordLatency(String prompt, long nanos) {
+        int tokens = PromptBudget.estimateTokens(prompt);
+        if (tokens <= 0 || nanos <= 0) return;
+        double sample = (double) nanos / tokens;
+        synchronized (this) {
+            double cur = nanosPerToken;
+            nanosPerToken = cur == 0 ? sample : cur + EWMA_ALPHA * (sample - cur);
+        }
     }
 
-    private String safe(String s) {
+    // JD: bütçeyi aşarsa son tam satırda kesilir
+    static String truncate(String s, int budgetTokens) {
         if (s == null) return "";
+        if (PromptBudget.estimateTokens(s) <= budgetTokens) return s;
 
-        if (s.length() > 12000) return s.substring(0, 12000);
-        return s;
+        int tokens = 0;
+        int lastLineEnd = 0;
+        int lineStart = 0;
+        while (lineStart < s.length()) {
+            int nl = s.indexOf('\n', lineStart);
+            int end = nl < 0 ? s.length() : nl;
+            tokens += PromptBudget.estimateTokens(s.subSequence(lineStart, end));
+            if (tokens > budgetTokens) break;
+            lastLineEnd = end;
+            lineStart = end + 1;
+        }
+        // tek satırlık dev metin: karakter tahminiyle kes
+        if (lastLineEnd == 0) return s.substring(0, Math.min(s.length(), budgetTokens * 4));
+        return s.substring(0, lastLineEnd);
     }
 }
@@ -0,0 +1,163 @@
+package com.ghosting.analyzer.analysis;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Kullanıcı başına AI token bucket'ı (capacity kadar burst, refillPerMinute hızında dolar).
+// GCRA olarak tutulur: bucket = tek AtomicLong "theoretical arrival time" (TAT, nanoTime),
+// acquire tek CAS; kilit yok, bucket başına nesne sadece AtomicLong. TAT <= now -> bucket dolu.
+// idleEvictMinutes boyunca dolu kalan bucket'lar (zaten varsayılan durum) arka planda silinir.
+// mode: degrade -> analiz engine-only kaydedilir (ENGINE_ONLY), reject -> 429 + Retry-After.
+@Component
+public class AiRateLimiter {
+
+    public enum Mode { DEGRADE, REJECT }
+
+    private final boolean enabled;
+    private final Mode mode;
+    private final int capacity;
+    private final long intervalNanos; // bir token'ın dolma süresi
+    private final long burstNanos;    // capacity * intervalNanos
+    private final long idleNanos;
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService evictor;
+
+    private final Counter throttled;
+
+    public AiRateLimiter(
+            @Value("${app.ai.rateLimit.enabled:true}") boolean enabled,
+            @Value("${app.ai.rateLimit.mode:degrade}") String mode,
+            @Value("${app.ai.rateLimit.capacity:10}") int capacity,
+            @Value("${app.ai.rateLimit.refillPerMinute:5}") double refillPerMinute,
+            @Value("${app.ai.rateLimit.idleEvictMinutes:30}") long idleEvictMinutes,
+            MeterRegistry registry
+    ) {
+        this.enabled = enabled && capacity > 0 && refillPerMinute > 0;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.capacity = Math.max(1, capacity);
+        this.intervalNanos = refillPerMinute > 0 ? (long) (TimeUnit.MINUTES.toNanos(1) / refillPerMinute) : 0;
+        this.burstNanos = this.capacity * intervalNanos;
+        this.idleNanos = TimeUnit.MINUTES.toNanos(Math.max(1, idleEvictMinutes));
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ai-ratelimit-evict");
+            t.setDaemon(true);
+            return t;
+        });
+        long sweepMinutes = Math.max(1, idleEvictMinutes / 2);
+        if (this.enabled) this.evictor.scheduleWithFixedDelay(this::evictIdle, sweepMinutes, sweepMinutes, TimeUnit.MINUTES);
+
+        this.throttled = Counter.builder("ai.ratelimit.throttled")
+                .description("Kullanıcı AI kotasını aştığı için engine-only'ye düşen / 429 alan istekler")
+                .tag("mode", this.mode.name().toLowerCase(Locale.ROOT))
+                .register(registry);
+        Gauge.builder("ai.ratelimit.buckets", buckets, Map::size).register(registry);
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public record Grant(int granted, long retryAfterMs) {}
+
+    // Hepsi ya da hiçbiri: 0 -> cost kadar token alındı; > 0 -> kaç ms sonra tekrar denenebilir.
+    // cost > capacity hiçbir zaman geçemez (çağıran önce capacity() ile kontrol eder).
+    public long tryAcquire(String userId, int cost) {
+        if (!enabled) return 0;
+
+        long n = Math.max(1, cost);
+        long now = System.nanoTime();
+        AtomicLong tat = bucket(userId, now);
+
+        while (true) {
+            long cur = tat.get();
+            long base = cur - now > 0 ? cur : now;
+            long next = base + n * intervalNanos;
+            long over = next - now - burstNanos;
+            if (over > 0) {
+                throttled.increment();
+                return Math.max(1, TimeUnit.NANOSECONDS.toMillis(over));
+            }
+            if (tat.compareAndSet(cur, next)) return 0;
+        }
+    }
+
+    // Kısmi: bucket'ta kalan kadar (en fazla max) token alınır; batch'te iş başına 1 token.
+    // granted < max ise kalan işler AI'sız (ENGINE_ONLY) çalışır; granted = 0 iken retryAfterMs > 0.
+    public Grant acquireUpTo(String userId, int max) {
+        if (!enabled) return new Grant(max, 0);
+
+        long now = System.nanoTime();
+        AtomicLong tat = bucket(userId, now);
+
+        while (true) {
+            long cur = tat.get();
+            long base = cur - now > 0 ? cur : now;
+            long available = (now + burstNanos - base) / intervalNanos;
+            int n = (int) Math.min(max, Math.max(0, available));
+            if (n == 0) {
+                throttled.increment();
+                return new Grant(0, Math.max(1, TimeUnit.NANOSECONDS.toMillis(base + intervalNanos - now - burstNanos)));
+            }
+            if (tat.compareAndSet(cur, base + n * intervalNanos)) {
+                if (n < max) throttled.increment();
+                return new Grant(n, 0);
+            }
+        }
+    }
+
+    // Alınan token kullanılmadıysa (ör. AI kuyruğu dolu) geri verilir
+    public void refund(String userId, int tokens) {
+        if (!enabled || tokens <= 0) return;
+        AtomicLong tat = buckets.get(userId);
+        if (tat != null) tat.addAndGet(-tokens * intervalNanos);
+    }
+
+    private AtomicLong bucket(String userId, long now) {
+        AtomicLong tat = buckets.get(userId);
+        return tat != null ? tat : buckets.computeIfAbsent(userId, k -> new AtomicLong(now));
+    }
+
+    // reject modunda controller'ın fırlattığı 429
+    public ResponseStatusException throttledException(long retryAfterMs) {
+        long seconds = Math.max(1, (retryAfterMs + 999) / 1000);
+        return new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "AI rate limit exceeded, retry in " + seconds + "s") {
+            @Override
+            public HttpHeaders getHeaders() {
+                HttpHeaders headers = new HttpHeaders();
+                headers.set(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+                return headers;
+            }
+        };
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(tat -> now - tat.get() > idleNanos);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        evictor.shutdownNow();
+    }
+}
@@ -0,0 +1,136 @@
+package com.ghosting.analyzer.analysis;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// AI sonuçları için içerik adresli 2 seviyeli cache.
+// Anahtar: sha-256(model + prompt) -> aynı CV + ilan + bağlam tekrar LLM'e gitmez.
+// L1: process içi, boyut + TTL sınırlı LRU. L2: ai_result_cache tablosu (restart'tan sağ çıkar, node'lar arası ortak).
+// L2'de TTL'i geçen satırları AiResultCachePurge siler.
+@Component
+public class AiResultCache {
+
+    private final AiCacheEntryRepository repository;
+    private final int maxEntries;
+    private final Duration ttl;
+
+    private final Map<String, L1Entry> l1;
+
+    private final Counter l1Hits;
+    private final Counter l2Hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    private record L1Entry(String aiJson, long expiresAtNanos) {}
+
+    public AiResultCache(
+            AiCacheEntryRepository repository,
+            @Value("${app.ai.cache.maxEntries:1000}") int maxEntries,
+            @Value("${app.ai.cache.ttlMinutes:1440}") long ttlMinutes,
+            MeterRegistry registry
+    ) {
+        this.repository = repository;
+        this.maxEntries = maxEntries;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+
+        this.l1Hits = Counter.builder("ai.cache.requests").tag("result", "hit").tag("level", "l1").register(registry);
+        this.l2Hits = Counter.builder("ai.cache.requests").tag("result", "hit").tag("level", "l2").register(registry);
+        this.misses = Counter.builder("ai.cache.requests").tag("result", "miss").register(registry);
+        this.evictions = Counter.builder("ai.cache.evictions").register(registry);
+
+        // access-order LinkedHashMap = LRU
+        this.l1 = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, L1Entry> eldest) {
+                if (size() > AiResultCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        Gauge.builder("ai.cache.l1.size", this, AiResultCache::l1Size).register(registry);
+    }
+
+    public String key(String model, String prompt) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(model.getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+            md.update(prompt.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // null -> miss
+    public String get(String key) {
+        long now = System.nanoTime();
+        synchronized (l1) {
+            L1Entry e = l1.get(key);
+            if (e != null) {
+                if (now - e.expiresAtNanos() < 0) {
+                    l1Hits.increment();
+                    return e.aiJson();
+                }
+                l1.remove(key);
+                evictions.increment();
+            }
+        }
+
+        try {
+            var stored = repository.findById(key).orElse(null);
+            if (stored != null && stored.getCreatedAt().plus(ttl).isAfter(Instant.now())) {
+                putL1(key, stored.getAiJson());
+                l2Hits.increment();
+                return stored.getAiJson();
+            }
+        } catch (Exception e) {
+            System.out.println("[AI-CACHE] L2 read failed: " + e.getMessage());
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    public void put(String key, String model, String aiJson) {
+        putL1(key, aiJson);
+        try {
+            // aynı anahtarla yeniden yazmak entry'yi tazeler (createdAt güncellenir)
+            repository.save(AiCacheEntry.builder()
+                    .cacheKey(key)
+                    .model(model)
+                    .aiJson(aiJson)
+                    .createdAt(Instant.now())
+                    .build());
+        } catch (Exception e) {
+            System.out.println("[AI-CACHE] L2 write failed: " + e.getMessage());
+        }
+    }
+
+    private void putL1(String key, String aiJson) {
+        synchronized (l1) {
+            l1.put(key, new L1Entry(aiJson, System.nanoTime() + ttl.toNanos()));
+        }
+    }
+
+    private int l1Size() {
+        synchronized (l1) {
+            return l1.size();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.ghosting.analyzer.analysis;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// ai_result_cache (L2) temizliği: TTL'i geçmiş satırlar okunurken zaten yok sayılıyor, burada silinir.
+// intervalMinutes'da bir, batchSize'lık parçalar halinde; her parça kendi kısa transaction'ında ve advisory lock
+// altında (birden fazla node'da aynı anda tek node siler). Yazmaları uzun süre kilitlememek için tek dev delete yok.
+@Component
+public class AiResultCachePurge {
+
+    private static final long LOCK_KEY = 7_318_202L; // pg_try_advisory_xact_lock anahtarı (uygulama genelinde tek)
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final int batchSize;
+    private final long intervalMinutes;
+    private final Counter purged;
+
+    private ScheduledExecutorService scheduler;
+
+    public AiResultCachePurge(
+            JdbcTemplate jdbc,
+            TransactionTemplate tx,
+            @Value("${app.ai.cache.purge.enabled:true}") boolean enabled,
+            @Value("${app.ai.cache.ttlMinutes:1440}") long ttlMinutes,
+            @Value("${app.ai.cache.purge.batchSize:1000}") int batchSize,
+            @Value("${app.ai.cache.purge.intervalMinutes:60}") long intervalMinutes,
+            MeterRegistry registry
+    ) {
+        this.jdbc = jdbc;
+        this.tx = tx;
+        this.enabled = enabled;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.batchSize = batchSize;
+        this.intervalMinutes = intervalMinutes;
+        this.purged = Counter.builder("ai.cache.purged").description("TTL'i geçtiği için silinen L2 kayıtları").register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ai-cache-purge");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                int n = purge(Instant.now().minus(ttl), batchSize);
+                if (n > 0) System.out.println("[AI-CACHE] Purged " + n + " expired L2 entries");
+            } catch (Exception e) {
+                System.out.println("[AI-CACHE] Purge failed: " + e.getMessage());
+            }
+        }, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) scheduler.shutdownNow();
+    }
+
+    // createdAt < cutoff olanları siler; lock başka node'dayken o tur bırakılır. Dönüş: silinen satır
+    int purge(Instant cutoff, int batchSize) {
+        Timestamp before = Timestamp.from(cutoff);
+        int total = 0;
+        while (true) {
+            Integer n = tx.execute(status -> {
+                Boolean got = jdbc.queryForObject("select pg_try_advisory_xact_lock(?)", Boolean.class, LOCK_KEY);
+                if (!Boolean.TRUE.equals(got)) return null;
+                // idx_ai_result_cache_created_at; put() ile aynı anda tazelenen satırlar atlanır
+                return jdbc.update("""
+                        delete from ai_result_cache where cache_key in (
+                            select cache_key from ai_result_cache
+                            where created_at < ?
+                            order by created_at
+                            limit ?
+                            for update skip locked)
+                        """, before, batchSize);
+            });
+            if (n == null) return total;
+            total += n;
+            purged.increment(n);
+            if (n < batchSize) return total;
+        }
+    }
+}
@@ -14,7 +14,10 @@ import java.util.UUID;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "analyses")
+@Table(name = "analyses", indexes = {
+        // history keyset sorgusu: where user_id = ? order by created_at desc, id desc
+        @Index(name = "idx_analyses_user_created_id", columnList = "user_id, created_at DESC, id DESC")
+})
 public class Analysis {
 
     @Id
@@ -42,6 +45,15 @@ public class Analysis {
     @Column(name = "result_json", columnDefinition = "jsonb", nullable = false)
     private String resultJson;
 
+    // eski kayıtlarda null olabilir (senkron akış döneminden)
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private AnalysisStatus status;
+
+    // POST /api/analyses/batch ile oluşturulduysa
+    @Column(name = "batch_id")
+    private UUID batchId;
+
     @Column(nullable = false)
     private Instant createdAt;
 
@@ -49,5 +61,6 @@ public class Analysis {
     void onCreate() {
         if (createdAt == null) createdAt = Instant.now();
         if (country == null || country.isBlank()) country = "TR";
+        if (status == null) status = AnalysisStatus.PENDING;
     }
 }
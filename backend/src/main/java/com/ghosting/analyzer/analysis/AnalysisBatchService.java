@@ -0,0 +1,117 @@
+package com.ghosting.analyzer.analysis;
+
+import com.ghosting.analyzer.analysis.dto.BatchAnalyzeRequest;
+import com.ghosting.analyzer.cv.Cv;
+import com.ghosting.analyzer.cv.CvTokenIndex;
+import com.ghosting.analyzer.insight.InsightEventBuffer;
+import com.ghosting.analyzer.user.User;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+// Tek CV'yi çok sayıda ilana karşı skorlar.
+// CV index bir kez hazırlanır, engine skorlaması ayrı bir fork-join havuzunda paralel çalışır,
+// tüm Analysis kayıtları tek transaction'da (JDBC batch) yazılır, AI zenginleştirme batch kuyruğuna gider.
+@Service
+public class AnalysisBatchService {
+
+    private final GhostingAnalyzerEngine engine;
+    private final AnalysisRepository analysisRepository;
+    private final AnalysisJobService analysisJobService;
+    private final InsightEventBuffer insightEventBuffer;
+    private final int parallelism;
+    private volatile ForkJoinPool scoringPool; // ilk batch'te kurulur; çoğu instance hiç batch görmez
+
+    public AnalysisBatchService(
+            GhostingAnalyzerEngine engine,
+            AnalysisRepository analysisRepository,
+            AnalysisJobService analysisJobService,
+            InsightEventBuffer insightEventBuffer,
+            @Value("${app.analysis.batch.parallelism:0}") int parallelism
+    ) {
+        this.engine = engine;
+        this.analysisRepository = analysisRepository;
+        this.analysisJobService = analysisJobService;
+        this.insightEventBuffer = insightEventBuffer;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    // null -> AI kuyruğu dolu, hiçbir şey yazılmadı
+    // aiJobs: kullanıcının AI kotasına sığan ilk N ilan PENDING (AI kuyruğuna), kalanlar ENGINE_ONLY kaydedilir
+    public List<Analysis> run(User user, Cv cv, String cvText, CvTokenIndex cvIndex, List<BatchAnalyzeRequest.Job> jobs, int aiJobs) {
+        boolean withAi = aiJobs > 0;
+        if (withAi && !analysisJobService.tryReserve()) return null;
+
+        List<Analysis> saved;
+        List<AnalysisResult> engineResults;
+        try {
+            UUID batchId = UUID.randomUUID();
+
+            // 1) engine skorları paralel (CPU-bound, DB'ye dokunmaz)
+            engineResults = scoringPool().submit(() -> jobs.parallelStream()
+                    .map(j -> engine.analyze(cvText, cvIndex, j.jobDescription()))
+                    .toList()
+            ).join();
+
+            List<Analysis> analyses = new ArrayList<>(jobs.size());
+            for (int i = 0; i < jobs.size(); i++) {
+                var j = jobs.get(i);
+                analyses.add(Analysis.builder()
+                        .user(user)
+                        .cv(cv)
+                        .batchId(batchId)
+                        .country((j.country() == null || j.country().isBlank()) ? "TR" : j.country().trim())
+                        .company(j.company())
+                        .jobTitle(j.jobTitle())
+                        .jobDescription(j.jobDescription())
+                        .resultJson(AnalysisJson.write(engineResults.get(i)))
+                        .status(i < aiJobs ? AnalysisStatus.PENDING : AnalysisStatus.ENGINE_ONLY)
+                        .build());
+            }
+
+            // 2) tek transaction, hibernate.jdbc.batch_size ile toplu insert
+            saved = analysisRepository.saveAll(analyses);
+        } catch (RuntimeException e) {
+            if (withAi) analysisJobService.cancelReservation();
+            throw e;
+        }
+
+        // ENGINE_ONLY kayıtların sonucu hazır: insight olayları burada (AI'lılar finish()'te yazılır)
+        for (int i = aiJobs; i < saved.size(); i++) {
+            insightEventBuffer.offer(AnalysisJobService.insightEvent(saved.get(i).getCountry(), engineResults.get(i)));
+        }
+        if (!withAi) return saved;
+
+        // 3) AI: batch kuyruğu (sıralı + rate limited); saveAll sırayı korur
+        int n = Math.min(aiJobs, saved.size());
+        List<AnalysisJobService.AnalysisJob> queued = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            queued.add(AnalysisJobService.AnalysisJob.of(saved.get(i), cvText, engineResults.get(i)));
+        }
+        analysisJobService.submitBatch(queued);
+
+        return saved;
+    }
+
+    private ForkJoinPool scoringPool() {
+        ForkJoinPool pool = scoringPool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = scoringPool;
+                if (pool == null) scoringPool = pool = new ForkJoinPool(parallelism);
+            }
+        }
+        return pool;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ForkJoinPool pool = scoringPool;
+        if (pool != null) pool.shutdown();
+    }
+}
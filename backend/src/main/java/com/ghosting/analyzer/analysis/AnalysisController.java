@@ -1,18 +1,30 @@
 package com.ghosting.analyzer.analysis;
 
+import com.ghosting.analyzer.analysis.dto.AnalysisPage;
+import com.ghosting.analyzer.analysis.dto.AnalysisSummary;
 import com.ghosting.analyzer.analysis.dto.AnalyzeRequest;
 import com.ghosting.analyzer.analysis.dto.AnalyzeResponse;
+import com.ghosting.analyzer.analysis.dto.BatchAnalyzeRequest;
+import com.ghosting.analyzer.analysis.dto.BatchAnalyzeResponse;
+import com.ghosting.analyzer.analysis.dto.BatchStatusResponse;
+import com.ghosting.analyzer.cv.Cv;
 import com.ghosting.analyzer.cv.CvRepository;
-import com.ghosting.analyzer.insight.InsightEvent;
-import com.ghosting.analyzer.insight.InsightEventRepository;
+import com.ghosting.analyzer.cv.CvTextStore;
+import com.ghosting.analyzer.cv.CvTokenIndex;
+import com.ghosting.analyzer.insight.InsightEventBuffer;
 import com.ghosting.analyzer.security.JwtService;
+import com.ghosting.analyzer.text.SkillDictionary;
 import com.ghosting.analyzer.user.UserRepository;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.UUID;
 import java.util.List;
@@ -22,17 +34,22 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AnalysisController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final AnalysisRepository analysisRepository;
     private final CvRepository cvRepository;
+    private final CvTextStore cvTextStore;
     private final UserRepository userRepository;
-    private final InsightEventRepository insightEventRepository;
 
     private final GhostingAnalyzerEngine engine;          // deterministic scores
-    private final HuggingFaceAiService hfAiService;        // AI commentary
-    private final AiPromptBuilder aiPromptBuilder;         // prompt
+    private final AnalysisJobService analysisJobService;  // AI commentary (async)
+    private final AnalysisBatchService analysisBatchService;
+    private final AnalysisStreamHub streamHub;
+    private final AiRateLimiter aiRateLimiter;
+    private final InsightEventBuffer insightEventBuffer;
 
     @PostMapping
-    public AnalyzeResponse analyze(@Valid @RequestBody AnalyzeRequest req, Authentication auth) {
+    public ResponseEntity<AnalyzeResponse> analyze(@Valid @RequestBody AnalyzeRequest req, Authentication auth) {
         if (auth == null || auth.getPrincipal() == null) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
         }
@@ -40,68 +57,68 @@ public class AnalysisController {
         var jwtUser = (JwtService.JwtUser) auth.getPrincipal();
         UUID userId = UUID.fromString(jwtUser.userId());
 
-        var user = userRepository.findById(userId).orElseThrow();
-        var cv = cvRepository.findById(req.cvId()).orElseThrow();
+        // sahiplik kontrolü sorgunun içinde; user için SELECT yok (sadece FK olarak yazılır)
+        var cv = cvRepository.findByIdAndUser_Id(req.cvId(), userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "CV not found"));
+        var user = userRepository.getReferenceById(userId);
+
+        String country = (req.country() == null || req.country().isBlank()) ? "TR" : req.country().trim();
+
+        String cvText = cvTextOf(cv);
+        CvTokenIndex cvIndex = tokenIndexOf(cv, cvText);
 
-        if (!cv.getUser().getId().equals(userId)) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "CV does not belong to user");
+        // 0) kullanıcı başına AI kotası: aşıldıysa mode'a göre engine-only ya da 429 + Retry-After
+        long retryAfterMs = aiRateLimiter.tryAcquire(jwtUser.userId(), 1);
+        if (retryAfterMs > 0 && aiRateLimiter.mode() == AiRateLimiter.Mode.REJECT) {
+            throw aiRateLimiter.throttledException(retryAfterMs);
         }
+        boolean withAi = retryAfterMs == 0;
 
-        String country = (req.country() == null || req.country().isBlank()) ? "TR" : req.country().trim();
+        // AI kuyruğunda yer yoksa hiç kayıt açmadan geri çevir; alınan kota token'ı iade edilir
+        if (withAi && !analysisJobService.tryReserve()) {
+            aiRateLimiter.refund(jwtUser.userId(), 1);
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Analysis queue is full, try again later");
+        }
 
         // 1) engine ile skorları garanti al (match_score + ats)
-        String engineJson = engine.analyze(cv.getRawText(), req.jobDescription());
-
-        int engineMatch = extractInt(engineJson, "\"match_score\":");
-        int engineAts = extractInt(engineJson, "\"ats_readability_score\":");
-        double engineGhost = extractDouble(engineJson, "\"ghosting_probability\":");
+        Analysis analysis;
+        AnalysisResult engineResult;
+        try {
+            engineResult = engine.analyze(cvText, cvIndex, req.jobDescription());
+
+            analysis = Analysis.builder()
+                    .user(user)
+                    .cv(cv)
+                    .country(country)
+                    .company(req.company())
+                    .jobTitle(req.jobTitle())
+                    .jobDescription(req.jobDescription())
+                    .resultJson(AnalysisJson.write(engineResult))
+                    .status(withAi ? AnalysisStatus.PENDING : AnalysisStatus.ENGINE_ONLY)
+                    .build();
+
+            analysis = analysisRepository.save(analysis);
+        } catch (RuntimeException e) {
+            if (withAi) analysisJobService.cancelReservation();
+            throw e;
+        }
 
-        // 2) AI ile yorum üret (eksik skill, reasons, fixes vs)
-        String aiJson = runAiOrNull(cv.getRawText(), req.jobDescription(), country, req.company(), req.jobTitle());
+        // 2) AI yorumu arka planda (skorlar yine engine ile override edilecek); engine-only ise sonuç hazır
+        // ve insight olayı burada yazılır (kotaya takılan analizler de istatistiklere girer)
+        if (withAi) analysisJobService.submit(AnalysisJobService.AnalysisJob.of(analysis, cvText, engineResult));
+        else insightEventBuffer.offer(AnalysisJobService.insightEvent(country, engineResult));
 
-        // 3) AI çalıştıysa: skor alanlarını engine ile override et
-        String finalJson;
-        if (aiJson != null) {
-            finalJson = mergeScoresIntoAiJson(aiJson, engineGhost, engineMatch, engineAts);
-            System.out.println("[AI] ✅ Using AI result (scores overridden by engine)");
-        } else {
-            finalJson = engineJson;
-            System.out.println("[AI] ❌ Using engine only");
-        }
-
-        var analysis = Analysis.builder()
-                .user(user)
-                .cv(cv)
-                .country(country)
-                .company(req.company())
-                .jobTitle(req.jobTitle())
-                .jobDescription(req.jobDescription())
-                .resultJson(finalJson)
-                .build();
-
-        analysis = analysisRepository.save(analysis);
-
-        var event = InsightEvent.builder()
-                .country(country)
-                .matchScore(extractInt(finalJson, "\"match_score\":"))
-                .atsReadabilityScore(extractInt(finalJson, "\"ats_readability_score\":"))
-                .roleGuess(extractString(finalJson, "\"role_guess\":"))
-                .seniorityGuess(extractString(finalJson, "\"seniority_guess\":"))
-                .missingSkills(null)
-                .build();
-
-        insightEventRepository.save(event);
-
-        return new AnalyzeResponse(
+        return ResponseEntity.status(withAi ? HttpStatus.ACCEPTED : HttpStatus.OK).body(new AnalyzeResponse(
                 analysis.getId(),
                 cv.getId(),
                 analysis.getResultJson(),
+                analysis.getStatus(),
                 analysis.getCreatedAt()
-        );
+        ));
     }
 
-    @GetMapping
-    public List<AnalyzeResponse> history(Authentication auth) {
+    @PostMapping("/batch")
+    public ResponseEntity<BatchAnalyzeResponse> analyzeBatch(@Valid @RequestBody BatchAnalyzeRequest req, Authentication auth) {
         if (auth == null || auth.getPrincipal() == null) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
         }
@@ -109,91 +126,175 @@ public class AnalysisController {
         var jwtUser = (JwtService.JwtUser) auth.getPrincipal();
         UUID userId = UUID.fromString(jwtUser.userId());
 
-        return analysisRepository.findAllByUser_IdOrderByCreatedAtDesc(userId)
-                .stream()
-                .map(a -> new AnalyzeResponse(a.getId(), a.getCv().getId(), a.getResultJson(), a.getCreatedAt()))
-                .toList();
-    }
+        // kullanıcı / CV / metin: tüm ilanlar için bir kez
+        var cv = cvRepository.findByIdAndUser_Id(req.cvId(), userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "CV not found"));
+        var user = userRepository.getReferenceById(userId);
+
+        // ilan başına bir token (her ilan bir HF çağrısı).
+        // reject: hepsi ya da 429; degrade: kalan token kadar ilan AI'lı, geri kalanı ENGINE_ONLY
+        int jobs = req.jobs().size();
+        int aiJobs;
+        if (aiRateLimiter.mode() == AiRateLimiter.Mode.REJECT) {
+            if (jobs > aiRateLimiter.capacity()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Batch of " + jobs + " jobs exceeds the AI quota of " + aiRateLimiter.capacity() + ", split it into smaller batches");
+            }
+            long retryAfterMs = aiRateLimiter.tryAcquire(jwtUser.userId(), jobs);
+            if (retryAfterMs > 0) throw aiRateLimiter.throttledException(retryAfterMs);
+            aiJobs = jobs;
+        } else {
+            aiJobs = aiRateLimiter.acquireUpTo(jwtUser.userId(), jobs).granted();
+        }
 
-    private String runAiOrNull(String cvText, String jdText, String country, String company, String jobTitle) {
+        String cvText = cvTextOf(cv);
+        List<Analysis> saved;
         try {
-            String prompt = aiPromptBuilder.build(cvText, jdText, country, company, jobTitle);
-            String aiText = hfAiService.generate(prompt);
-            if (aiText == null) return null;
+            saved = analysisBatchService.run(user, cv, cvText, tokenIndexOf(cv, cvText), req.jobs(), aiJobs);
+        } catch (RuntimeException e) {
+            aiRateLimiter.refund(jwtUser.userId(), aiJobs);
+            throw e;
+        }
+        if (saved == null) {
+            aiRateLimiter.refund(jwtUser.userId(), aiJobs);
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Analysis queue is full, try again later");
+        }
 
-            String trimmed = aiText.trim();
-            System.out.println("[AI] Raw(first 250): " + trimmed.substring(0, Math.min(250, trimmed.length())));
+        var items = saved.stream()
+                .map(a -> new AnalyzeResponse(a.getId(), cv.getId(), a.getResultJson(), a.getStatus(), a.getCreatedAt()))
+                .toList();
 
-            String jsonOnly = extractJsonObject(trimmed);
-            if (jsonOnly == null) return null;
+        // degrade modda hiç token kalmadıysa her şey ENGINE_ONLY: bekleyen iş yok -> 202 değil 200
+        int queued = Math.min(aiJobs, saved.size());
+        return ResponseEntity.status(queued > 0 ? HttpStatus.ACCEPTED : HttpStatus.OK)
+                .body(new BatchAnalyzeResponse(saved.get(0).getBatchId(), cv.getId(), saved.size(), queued, saved.size() - queued, items));
+    }
 
-            // minimum alan kontrolü
-            if (!jsonOnly.contains("\"ghosting_probability\"") || !jsonOnly.contains("\"match_score\"")) return null;
+    @GetMapping("/batch/{batchId}")
+    public BatchStatusResponse batchStatus(@PathVariable UUID batchId, Authentication auth) {
+        if (auth == null || auth.getPrincipal() == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
+        }
 
-            return jsonOnly;
-        } catch (Exception e) {
-            System.out.println("[AI] Exception -> AI disabled for this run. " + e.getMessage());
-            return null;
+        var jwtUser = (JwtService.JwtUser) auth.getPrincipal();
+        UUID userId = UUID.fromString(jwtUser.userId());
+
+        var analyses = analysisRepository.findAllByBatchIdAndUser_Id(batchId, userId);
+        if (analyses.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Batch not found");
+        }
+
+        int pending = 0, enriched = 0, failed = 0, engineOnly = 0;
+        for (var a : analyses) {
+            switch (a.getStatus()) {
+                case ENRICHED -> enriched++;
+                case FAILED -> failed++;
+                case ENGINE_ONLY -> engineOnly++;
+                default -> pending++;
+            }
         }
+
+        var items = analyses.stream()
+                .map(a -> new BatchStatusResponse.Item(a.getId(), a.getJobTitle(), a.getCompany(), a.getStatus()))
+                .toList();
+
+        return new BatchStatusResponse(batchId, analyses.size(), pending, enriched, failed, engineOnly, items);
     }
 
-    private String extractJsonObject(String text) {
-        if (text == null) return null;
-        int a = text.indexOf('{');
-        int b = text.lastIndexOf('}');
-        if (a < 0 || b < 0 || b <= a) return null;
-        return text.substring(a, b + 1).trim();
+    // engine skorları hemen "scores" olayı ile, AI metni geldikçe "delta", bitince "result"
+    @GetMapping(value = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable UUID id, Authentication auth) {
+        if (auth == null || auth.getPrincipal() == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
+        }
+
+        var jwtUser = (JwtService.JwtUser) auth.getPrincipal();
+        UUID userId = UUID.fromString(jwtUser.userId());
+
+        var a = analysisRepository.findByIdAndUser_Id(id, userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Analysis not found"));
+
+        SseEmitter emitter = streamHub.subscribe(id, a.getResultJson());
+
+        // abone olduktan sonra tekrar bak: iş arada bittiyse hub.complete bu emitter'ı görmemiş olabilir
+        var current = a.getStatus() == AnalysisStatus.PENDING ? analysisRepository.findById(id).orElse(a) : a;
+        if (current.getStatus() != AnalysisStatus.PENDING) {
+            streamHub.finish(emitter, new AnalysisStreamHub.Result(current.getStatus(), current.getResultJson(), null));
+        }
+        return emitter;
     }
 
-    // AI json içindeki score alanlarını engine değerleriyle değiştir (basit string replace)
-    private String mergeScoresIntoAiJson(String aiJson, double ghostProb, int matchScore, int atsScore) {
-        String out = aiJson;
+    @GetMapping("/{id}")
+    public AnalyzeResponse get(@PathVariable UUID id, Authentication auth) {
+        if (auth == null || auth.getPrincipal() == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
+        }
 
-        // ghosting_probability: sayı formatı (0.80 gibi)
-        out = out.replaceAll("\"ghosting_probability\"\\s*:\\s*([0-9]+\\.?[0-9]*)", "\"ghosting_probability\": " + String.format(java.util.Locale.US, "%.2f", ghostProb));
+        var jwtUser = (JwtService.JwtUser) auth.getPrincipal();
+        UUID userId = UUID.fromString(jwtUser.userId());
 
-        // match_score / ats_readability_score: integer
-        out = out.replaceAll("\"match_score\"\\s*:\\s*([0-9]+)", "\"match_score\": " + matchScore);
-        out = out.replaceAll("\"ats_readability_score\"\\s*:\\s*([0-9]+)", "\"ats_readability_score\": " + atsScore);
+        var a = analysisRepository.findByIdAndUser_Id(id, userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Analysis not found"));
 
-        return out;
+        return new AnalyzeResponse(a.getId(), a.getCv().getId(), a.getResultJson(), a.getStatus(), a.getCreatedAt());
     }
 
-    private int extractInt(String json, String key) {
-        try {
-            int i = json.indexOf(key);
-            if (i < 0) return 0;
-            int start = i + key.length();
-            int end = start;
-            while (end < json.length() && (Character.isDigit(json.charAt(end)) || json.charAt(end) == ' ')) end++;
-            return Integer.parseInt(json.substring(start, end).trim());
-        } catch (Exception e) {
-            return 0;
+    // Liste görünümü: sadece özet kolonlar, cursor ile sayfalı. Tam sonuç için GET /{id}
+    @GetMapping
+    public AnalysisPage history(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication auth
+    ) {
+        if (auth == null || auth.getPrincipal() == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
         }
+
+        var jwtUser = (JwtService.JwtUser) auth.getPrincipal();
+        UUID userId = UUID.fromString(jwtUser.userId());
+
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // bir fazlası çekilir: sonraki sayfa var mı?
+        var pageable = PageRequest.of(0, size + 1);
+
+        List<AnalysisSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = analysisRepository.findFirstPage(userId, pageable);
+        } else {
+            AnalysisCursor after;
+            try {
+                after = AnalysisCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+            rows = analysisRepository.findPageAfter(userId, after.createdAt(), after.id(), pageable);
+        }
+
+        if (rows.size() <= size) return new AnalysisPage(rows, null);
+
+        var items = rows.subList(0, size);
+        return new AnalysisPage(List.copyOf(items), AnalysisCursor.of(items.get(size - 1)).encode());
     }
 
-    private double extractDouble(String json, String key) {
-        try {
-            int i = json.indexOf(key);
-            if (i < 0) return 0.0;
-            int start = i + key.length();
-            int end = start;
-            while (end < json.length() && (Character.isDigit(json.charAt(end)) || json.charAt(end) == '.' || json.charAt(end) == ' ')) end++;
-            return Double.parseDouble(json.substring(start, end).trim());
-        } catch (Exception e) {
-            return 0.0;
+    // sıkıştırılmış metin sadece analiz yolunda açılır
+    private String cvTextOf(Cv cv) {
+        String text = cvTextStore.load(cv.getId());
+        if (text == null) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "CV text is missing, upload the CV again");
         }
+        return text;
     }
 
-    private String extractString(String json, String key) {
-        try {
-            int i = json.indexOf(key);
-            if (i < 0) return null;
-            int start = json.indexOf("\"", i + key.length());
-            int end = json.indexOf("\"", start + 1);
-            return json.substring(start + 1, end);
-        } catch (Exception e) {
-            return null;
+    // index upload'tan önce yüklenmiş ya da eski taxonomy ile kurulmuş CV'ler için ilk kullanımda (yeniden) kurulur
+    private CvTokenIndex tokenIndexOf(Cv cv, String cvText) {
+        if (cv.getTokenIndex() != null) {
+            CvTokenIndex stored = CvTokenIndex.decode(cv.getTokenIndex());
+            if (stored.hasSkills(SkillDictionary.bundled())) return stored;
         }
+
+        CvTokenIndex index = CvTokenIndex.build(cvText);
+        cv.setTokenIndex(index.encode());
+        cvRepository.save(cv);
+        return index;
     }
 }
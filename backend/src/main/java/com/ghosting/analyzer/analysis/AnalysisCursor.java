@@ -0,0 +1,33 @@
+package com.ghosting.analyzer.analysis;
+
+import com.ghosting.analyzer.analysis.dto.AnalysisSummary;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+// History cursor'ı: son satırın (created_at, id) çifti, base64url ile opak string.
+record AnalysisCursor(Instant createdAt, UUID id) {
+
+    static AnalysisCursor of(AnalysisSummary last) {
+        return new AnalysisCursor(last.createdAt(), last.analysisId());
+    }
+
+    String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // geçersiz cursor -> IllegalArgumentException
+    static AnalysisCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            if (sep < 0) throw new IllegalArgumentException("Invalid cursor");
+            return new AnalysisCursor(Instant.parse(raw.substring(0, sep)), UUID.fromString(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package com.ghosting.analyzer.analysis;
+
+import com.ghosting.analyzer.insight.InsightEvent;
+import com.ghosting.analyzer.insight.InsightEventBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// AI zenginleştirmeyi request thread'inden ayırır.
+// Worker sayısı + kuyruk kapasitesi kadar slot var; slot yoksa controller 429 döner.
+// Aynı prompt'a sahip eşzamanlı işler tek LLM çağrısını paylaşır (single-flight, ai.coalesced).
+// Takipçi worker'ı bekletmez: liderin future'ına bağlanır, sonucu gelince worker havuzunda yazılır.
+// Slot ise iş gerçekten bitene (takipçide sonuç yazılana) kadar tutulur: bekleyen takipçiler de kapasiteye sayılır.
+@Service
+public class AnalysisJobService {
+
+    private final AnalysisRepository analysisRepository;
+    private final InsightEventBuffer insightEventBuffer;
+    private final HuggingFaceAiService hfAiService;
+    private final AiPromptBuilder aiPromptBuilder;
+    private final AiResultCache aiResultCache;
+    private final AnalysisStreamHub streamHub;
+
+    private final ThreadPoolExecutor executor;
+    private final Semaphore slots;
+    private final long batchIntervalMs;
+    private final boolean streamEnabled;
+    private final Timer ttfbTimer;
+
+    // cache anahtarı (model + prompt) -> uçuştaki AI çağrısı
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final long coalesceWaitMs;
+    private final Counter coalesced;
+    private final Counter coalesceTimeouts;
+
+    private static final class InFlight {
+        final CompletableFuture<AnalysisResult> result = new CompletableFuture<>();
+        private final StringBuilder streamed = new StringBuilder(); // geç katılan takipçiye replay
+        private final List<UUID> followers = new ArrayList<>();     // stream delta'ları bunlara da gider
+
+        synchronized void delta(AnalysisStreamHub hub, String delta) {
+            streamed.append(delta);
+            for (UUID follower : followers) hub.delta(follower, delta);
+        }
+
+        // stream ortasında katılan takipçi o ana kadarki metni tek delta olarak alır, sonra canlı devam eder
+        synchronized void join(AnalysisStreamHub hub, UUID follower) {
+            followers.add(follower);
+            if (streamed.length() > 0) hub.delta(follower, streamed.toString());
+        }
+
+        synchronized void leave(UUID follower) {
+            followers.remove(follower);
+        }
+    }
+
+    public AnalysisJobService(
+            AnalysisRepository analysisRepository,
+            InsightEventBuffer insightEventBuffer,
+            HuggingFaceAiService hfAiService,
+            AiPromptBuilder aiPromptBuilder,
+            AiResultCache aiResultCache,
+            AnalysisStreamHub streamHub,
+            MeterRegistry registry,
+            @Value("${app.ai.jobs.workers:4}") int workers,
+            @Value("${app.ai.jobs.queueCapacity:50}") int queueCapacity,
+            @Value("${app.ai.jobs.batchIntervalMs:1000}") long batchIntervalMs,
+            @Value("${app.ai.stream.enabled:true}") boolean streamEnabled,
+            @Value("${app.ai.coalesce.waitMs:65000}") long coalesceWaitMs
+    ) {
+        this.analysisRepository = analysisRepository;
+        this.insightEventBuffer = insightEventBuffer;
+        this.hfAiService = hfAiService;
+        this.aiPromptBuilder = aiPromptBuilder;
+        this.aiResultCache = aiResultCache;
+        this.streamHub = streamHub;
+
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                workers, workers,
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "ai-enrich-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }
+        );
+        this.slots = new Semaphore(workers + queueCapacity);
+        this.batchIntervalMs = batchIntervalMs;
+        this.streamEnabled = streamEnabled;
+        this.ttfbTimer = Timer.builder("hf.stream.ttfb")
+                .description("HF isteği -> ilk token delta")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+
+        this.coalesceWaitMs = coalesceWaitMs;
+        this.coalesced = Counter.builder("ai.coalesced")
+                .description("Uçuştaki aynı AI çağrısının sonucunu paylaşan (LLM'e ayrıca gitmeyen) istekler")
+                .register(registry);
+        this.coalesceTimeouts = Counter.builder("ai.coalesced.timeouts").register(registry);
+        Gauge.builder("ai.inflight", inFlight, Map::size).register(registry);
+    }
+
+    public record AnalysisJob(
+            UUID analysisId,
+            String cvText,
+            String jobDescription,
+            String country,
+            String company,
+            String jobTitle,
+            AnalysisResult engine
+    ) {
+        // yeni kaydedilmiş (PENDING, resultJson = engine sonucu) analiz için
+        public static AnalysisJob of(Analysis a, String cvText, AnalysisResult engine) {
+            return new AnalysisJob(
+                    a.getId(),
+                    cvText,
+                    a.getJobDescription(),
+                    a.getCountry(),
+                    a.getCompany(),
+                    a.getJobTitle(),
+                    engine
+            );
+        }
+    }
+
+    // Slot ayır; false -> kuyruk dolu (backpressure)
+    public boolean tryReserve() {
+        return slots.tryAcquire();
+    }
+
+    // Ayrılan slot kullanılmadan vazgeçilirse (ör. kayıt hatası) geri ver
+    public void cancelReservation() {
+        slots.release();
+    }
+
+    // tryReserve() ile alınmış slot üzerinde çalışır; slot iş bitince bırakılır
+    public void submit(AnalysisJob job) {
+        submitTask(() -> enrich(job));
+    }
+
+    // task worker'da çalışır ve işin bittiği anı future olarak döner (takipçide worker'dan sonra tamamlanır);
+    // slot o future tamamlanınca bırakılır
+    private void submitTask(Supplier<CompletableFuture<?>> task) {
+        try {
+            executor.execute(() -> {
+                CompletableFuture<?> done;
+                try {
+                    done = task.get();
+                } catch (RuntimeException | Error e) {
+                    slots.release();
+                    throw e;
+                }
+                done.whenComplete((r, ex) -> slots.release());
+            });
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    // Batch: tek slot + tek worker; item'lar sırayla ve aralarında batchIntervalMs beklenerek işlenir.
+    // Böylece 50 ilanlık bir batch tüm havuzu / HF kotasını tek başına tüketmez.
+    // İlerleme her item'ın kendi status alanından okunur (PENDING -> ENRICHED / FAILED).
+    public void submitBatch(List<AnalysisJob> jobs) {
+        submitTask(() -> {
+            List<CompletableFuture<Void>> items = new ArrayList<>(jobs.size());
+            for (int i = 0; i < jobs.size(); i++) {
+                if (i > 0 && !pause(batchIntervalMs)) {
+                    markFailed(jobs.subList(i, jobs.size()));
+                    break;
+                }
+                items.add(enrich(jobs.get(i)));
+            }
+            return CompletableFuture.allOf(items.toArray(CompletableFuture[]::new));
+        });
+    }
+
+    public int inFlight() {
+        return executor.getActiveCount() + executor.getQueue().size();
+    }
+
+    // dönen future sonuç yazılınca tamamlanır
+    private CompletableFuture<Void> enrich(AnalysisJob job) {
+        streamHub.open(job.analysisId());
+
+        long[] ttfbNanos = {-1};
+        CompletableFuture<AnalysisResult> ai = runAi(job, ttfbNanos);
+        if (ai.isDone()) {
+            Long ttfbMs = ttfbNanos[0] < 0 ? null : TimeUnit.NANOSECONDS.toMillis(ttfbNanos[0]);
+            finish(job, ai.join(), ttfbMs);
+            return CompletableFuture.completedFuture(null);
+        }
+        // takipçi: worker burada serbest kalır, slot sonuç yazılana kadar tutulur
+        return ai.thenAcceptAsync(result -> finish(job, result, null), this::finishLater);
+    }
+
+    // liderin sonucunu tamamlayan thread'de (lider worker'ı / timeout thread'i) DB işi yapılmaz
+    private void finishLater(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run(); // shutdown
+        }
+    }
+
+    private void finish(AnalysisJob job, AnalysisResult ai, Long ttfbMs) {
+        AnalysisResult result;
+        AnalysisStatus status;
+        if (ai != null) {
+            result = ai.withScores(job.engine());
+            status = AnalysisStatus.ENRICHED;
+            System.out.println("[AI] ✅ Using AI result (scores overridden by engine) analysis=" + job.analysisId());
+        } else {
+            result = job.engine();
+            status = AnalysisStatus.FAILED;
+            System.out.println("[AI] ❌ Using engine only analysis=" + job.analysisId());
+        }
+
+        String finalJson = AnalysisJson.write(result);
+
+        try {
+            analysisRepository.updateResult(job.analysisId(), finalJson, status);
+
+            // analitik: write-behind, bu thread'i bekletmez
+            insightEventBuffer.offer(insightEvent(job.country(), result));
+        } catch (Exception e) {
+            System.out.println("[AI] Failed to persist enrichment for analysis=" + job.analysisId() + " " + e.getMessage());
+        }
+
+        streamHub.complete(job.analysisId(), new AnalysisStreamHub.Result(status, finalJson, ttfbMs));
+    }
+
+    // her kaydedilen analiz için tek olay: AI'lı işlerde finish(), ENGINE_ONLY kayıtlarda controller / batch servisi yazar
+    static InsightEvent insightEvent(String country, AnalysisResult result) {
+        return InsightEvent.builder()
+                .country(country)
+                .matchScore(result.matchScore())
+                .atsReadabilityScore(result.atsReadabilityScore())
+                .roleGuess(result.roleGuess())
+                .seniorityGuess(result.seniorityGuess())
+                .missingSkills(result.missingSkills() == null ? null : result.missingSkills().toArray(String[]::new))
+                .build();
+    }
+
+    // shutdown sırasında kalan batch item'ları PENDING'de asılı kalmasın
+    private void markFailed(List<AnalysisJob> rest) {
+        for (AnalysisJob job : rest) {
+            analysisRepository.updateStatus(job.analysisId(), AnalysisStatus.FAILED);
+            streamHub.complete(job.analysisId(), new AnalysisStreamHub.Result(AnalysisStatus.FAILED, AnalysisJson.write(job.engine()), null));
+        }
+    }
+
+    private boolean pause(long ms) {
+        try {
+            Thread.sleep(ms);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // ttfbNanos[0]: stream modunda ilk delta'ya kadar geçen süre (yoksa -1).
+    // Lider/hata: tamamlanmış future (null -> engine-only); takipçi: liderin sonucuyla tamamlanır.
+    private CompletableFuture<AnalysisResult> runAi(AnalysisJob job, long[] ttfbNanos) {
+        try {
+            AiPromptBuilder.Prompt built = aiPromptBuilder.build(job.cvText(), job.jobDescription(), job.country(), job.company(), job.jobTitle());
+            String cacheKey = aiResultCache.key(hfAiService.model(), built.text());
+
+            // single-flight: aynı prompt için uçuşta bir çağrı varsa (çift submit, iki sekme) sonucuna bağlan.
+            // Lider cache'e yazdıktan sonra kaydını sildiği için arada gelen istek cache'ten alır.
+            InFlight flight = new InFlight();
+            InFlight leader = inFlight.putIfAbsent(cacheKey, flight);
+            if (leader != null) return follow(leader, job);
+
+            try {
+                AnalysisResult result = cachedOrGenerate(job, built, cacheKey, flight, ttfbNanos);
+                flight.result.complete(result);
+                return CompletableFuture.completedFuture(result);
+            } catch (Exception e) {
+                flight.result.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(cacheKey, flight);
+            }
+        } catch (Exception e) {
+            System.out.println("[AI] Exception -> AI disabled for this run. " + e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    // takipçi kendi Analysis kaydını tutar; liderin sonucu kendi engine skorlarıyla birleştirilir.
+    // copy(): orTimeout liderin future'ını (ve diğer takipçileri) timeout ile tamamlamasın
+    private CompletableFuture<AnalysisResult> follow(InFlight leader, AnalysisJob job) {
+        leader.join(streamHub, job.analysisId());
+        return leader.result.copy()
+                .orTimeout(coalesceWaitMs, TimeUnit.MILLISECONDS)
+                .handle((result, ex) -> {
+                    leader.leave(job.analysisId());
+                    Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+                    if (cause instanceof TimeoutException) {
+                        coalesceTimeouts.increment();
+                        System.out.println("[AI] Timed out waiting for in-flight call analysis=" + job.analysisId());
+                        return null;
+                    }
+                    // lider başarısız / AI sonucu yok: takipçi de engine-only, tasarruf sayılmaz
+                    if (cause != null || result == null) return null;
+                    coalesced.increment();
+                    System.out.println("[AI] Coalesced with in-flight call analysis=" + job.analysisId());
+                    return result;
+                });
+    }
+
+    private AnalysisResult cachedOrGenerate(AnalysisJob job, AiPromptBuilder.Prompt built, String cacheKey, InFlight flight, long[] ttfbNanos) {
+        // aynı girdiler daha önce işlendiyse LLM'e hiç gitme
+        String cached = aiResultCache.get(cacheKey);
+        if (cached != null) {
+            AnalysisResult hit = AnalysisJson.parse(cached);
+            if (hit != null) {
+                System.out.println("[AI] Cache hit " + cacheKey.substring(0, 12));
+                return hit;
+            }
+        }
+
+        // prompt metrikleri sadece HF'e giden çağrı için
+        String prompt = built.text();
+        aiPromptBuilder.recordSent(built);
+        if (built.tokensBefore() > built.tokensAfter()) {
+            System.out.println("[AI] Prompt ~" + built.tokensBefore() + " -> ~" + built.tokensAfter() + " tokens (CV "
+                    + built.cvSegmentsKept() + "/" + built.cvSegmentsTotal() + " segments, est. "
+                    + built.estimatedSavedMs() + "ms saved) analysis=" + job.analysisId());
+        }
+
+        String aiText;
+        long started = System.nanoTime();
+        if (streamEnabled) {
+            aiText = hfAiService.generateStreaming(prompt, delta -> {
+                if (ttfbNanos[0] < 0) {
+                    ttfbNanos[0] = System.nanoTime() - started;
+                    ttfbTimer.record(ttfbNanos[0], TimeUnit.NANOSECONDS);
+                    System.out.println("[AI] First token after " + TimeUnit.NANOSECONDS.toMillis(ttfbNanos[0]) + "ms analysis=" + job.analysisId());
+                }
+                streamHub.delta(job.analysisId(), delta);
+                flight.delta(streamHub, delta);
+            });
+        } else {
+            aiText = hfAiService.generate(prompt);
+        }
+        if (aiText == null) return null;
+
+        // prompt sıkıştırmasının kazandırdığı süre tahmini için: stream'de prefill (TTFB), değilse toplam süre
+        aiPromptBuilder.recordLatency(prompt, ttfbNanos[0] >= 0 ? ttfbNanos[0] : System.nanoTime() - started);
+
+        String trimmed = aiText.trim();
+        System.out.println("[AI] Raw(first 250): " + trimmed.substring(0, Math.min(250, trimmed.length())));
+
+        // tek geçişte parse; zorunlu alanlar (ghosting_probability, match_score) yoksa null
+        AnalysisResult parsed = AnalysisJson.parse(AnalysisJson.extractJsonObject(trimmed));
+        if (parsed == null) return null;
+
+        aiResultCache.put(cacheKey, hfAiService.model(), AnalysisJson.write(parsed));
+        return parsed;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) executor.shutdownNow();
+    }
+}
@@ -0,0 +1,234 @@
+package com.ghosting.analyzer.analysis;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+// AnalysisResult <-> result_json. Jackson streaming parser/generator ile tek geçiş;
+// ara JsonNode ağacı ya da regex yok.
+public final class AnalysisJson {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private AnalysisJson() {}
+
+    private interface Reader<T> {
+        T read(JsonParser p) throws IOException;
+    }
+
+    // LLM cevabındaki ilk '{' ile son '}' arası (markdown / açıklama metnini at)
+    public static String extractJsonObject(String text) {
+        if (text == null) return null;
+        int a = text.indexOf('{');
+        int b = text.lastIndexOf('}');
+        if (a < 0 || b < 0 || b <= a) return null;
+        return text.substring(a, b + 1).trim();
+    }
+
+    // null -> geçersiz json ya da zorunlu alanlar (ghosting_probability, match_score) yok
+    public static AnalysisResult parse(String json) {
+        if (json == null) return null;
+
+        try (JsonParser p = FACTORY.createParser(json)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) return null;
+
+            Double ghost = null;
+            Integer match = null;
+            int ats = 0;
+            String seniority = null;
+            String role = null;
+            List<AnalysisResult.Reason> reasons = List.of();
+            List<String> missing = List.of();
+            List<AnalysisResult.Fix> fixes = List.of();
+            List<AnalysisResult.Rewrite> rewrites = List.of();
+
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.getCurrentName();
+                p.nextToken();
+                switch (name) {
+                    case "ghosting_probability" -> ghost = readDouble(p);
+                    case "match_score" -> match = readInt(p);
+                    case "ats_readability_score" -> {
+                        Integer v = readInt(p);
+                        ats = v == null ? 0 : v;
+                    }
+                    case "seniority_guess" -> seniority = readString(p);
+                    case "role_guess" -> role = readString(p);
+                    case "top_rejection_reasons" -> reasons = readArray(p, AnalysisJson::readReason);
+                    case "missing_skills" -> missing = readArray(p, AnalysisJson::readString);
+                    case "fixes" -> fixes = readArray(p, AnalysisJson::readFix);
+                    case "rewrite_suggestions" -> rewrites = readArray(p, AnalysisJson::readRewrite);
+                    default -> p.skipChildren();
+                }
+            }
+
+            if (ghost == null || match == null) return null;
+            return new AnalysisResult(ghost, match, ats, seniority, role, reasons, missing, fixes, rewrites);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public static String write(AnalysisResult r) {
+        StringWriter out = new StringWriter(1024);
+        try (JsonGenerator g = FACTORY.createGenerator(out)) {
+            g.writeStartObject();
+            // eski "%.2f" formatı korunur (0.60 gibi)
+            g.writeFieldName("ghosting_probability");
+            g.writeNumber(BigDecimal.valueOf(r.ghostingProbability()).setScale(2, RoundingMode.HALF_UP));
+            g.writeNumberField("match_score", r.matchScore());
+            g.writeNumberField("ats_readability_score", r.atsReadabilityScore());
+            g.writeStringField("seniority_guess", r.seniorityGuess());
+            g.writeStringField("role_guess", r.roleGuess());
+
+            g.writeArrayFieldStart("top_rejection_reasons");
+            for (var x : nonNull(r.topRejectionReasons())) {
+                g.writeStartObject();
+                g.writeStringField("reason", x.reason());
+                g.writeNumberField("confidence", x.confidence());
+                g.writeEndObject();
+            }
+            g.writeEndArray();
+
+            g.writeArrayFieldStart("missing_skills");
+            for (var x : nonNull(r.missingSkills())) g.writeString(x);
+            g.writeEndArray();
+
+            g.writeArrayFieldStart("fixes");
+            for (var x : nonNull(r.fixes())) {
+                g.writeStartObject();
+                g.writeStringField("area", x.area());
+                g.writeStringField("action", x.action());
+                g.writeEndObject();
+            }
+            g.writeEndArray();
+
+            g.writeArrayFieldStart("rewrite_suggestions");
+            for (var x : nonNull(r.rewriteSuggestions())) {
+                g.writeStartObject();
+                g.writeStringField("original", x.original());
+                g.writeStringField("improved", x.improved());
+                g.writeEndObject();
+            }
+            g.writeEndArray();
+
+            g.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    private static <T> List<T> nonNull(List<T> list) {
+        return list == null ? List.of() : list;
+    }
+
+    // p geçerli token'da (START_ARRAY bekleniyor); dizi değilse atlanır
+    private static <T> List<T> readArray(JsonParser p, Reader<T> item) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return List.of();
+        }
+        List<T> out = new ArrayList<>();
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            T v = item.read(p);
+            if (v != null) out.add(v);
+        }
+        return out;
+    }
+
+    private static AnalysisResult.Reason readReason(JsonParser p) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return null;
+        }
+        String reason = null;
+        Double confidence = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.getCurrentName();
+            p.nextToken();
+            switch (name) {
+                case "reason" -> reason = readString(p);
+                case "confidence" -> confidence = readDouble(p);
+                default -> p.skipChildren();
+            }
+        }
+        return new AnalysisResult.Reason(reason, confidence == null ? 0.0 : confidence);
+    }
+
+    private static AnalysisResult.Fix readFix(JsonParser p) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return null;
+        }
+        String area = null;
+        String action = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.getCurrentName();
+            p.nextToken();
+            switch (name) {
+                case "area" -> area = readString(p);
+                case "action" -> action = readString(p);
+                default -> p.skipChildren();
+            }
+        }
+        return new AnalysisResult.Fix(area, action);
+    }
+
+    private static AnalysisResult.Rewrite readRewrite(JsonParser p) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return null;
+        }
+        String original = null;
+        String improved = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.getCurrentName();
+            p.nextToken();
+            switch (name) {
+                case "original" -> original = readString(p);
+                case "improved" -> improved = readString(p);
+                default -> p.skipChildren();
+            }
+        }
+        return new AnalysisResult.Rewrite(original, improved);
+    }
+
+    private static String readString(JsonParser p) throws IOException {
+        JsonToken t = p.currentToken();
+        if (t == JsonToken.VALUE_STRING || t == JsonToken.VALUE_NUMBER_INT || t == JsonToken.VALUE_NUMBER_FLOAT) {
+            return p.getText();
+        }
+        p.skipChildren();
+        return null;
+    }
+
+    // LLM bazen sayıları string olarak döndürüyor ("0.8")
+    private static Double readDouble(JsonParser p) throws IOException {
+        JsonToken t = p.currentToken();
+        if (t == JsonToken.VALUE_NUMBER_INT || t == JsonToken.VALUE_NUMBER_FLOAT) return p.getDoubleValue();
+        if (t == JsonToken.VALUE_STRING) {
+            try {
+                return Double.parseDouble(p.getText().trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        p.skipChildren();
+        return null;
+    }
+
+    private static Integer readInt(JsonParser p) throws IOException {
+        Double d = readDouble(p);
+        return d == null ? null : (int) Math.round(d);
+    }
+}
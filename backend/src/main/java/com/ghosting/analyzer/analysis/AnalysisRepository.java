@@ -1,10 +1,57 @@
 package com.ghosting.analyzer.analysis;
 
+import com.ghosting.analyzer.analysis.dto.AnalysisSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface AnalysisRepository extends JpaRepository<Analysis, UUID> {
-    List<Analysis> findAllByUser_IdOrderByCreatedAtDesc(UUID userId);
+    Optional<Analysis> findByIdAndUser_Id(UUID id, UUID userId);
+    List<Analysis> findAllByBatchIdAndUser_Id(UUID batchId, UUID userId);
+
+    // History: keyset sayfalama (created_at desc, id desc), idx_analyses_user_created_id kullanır.
+    // limit sadece LIMIT için (List dönüşü -> count sorgusu yok).
+    // a.cv.id FK kolonundan okunur, Cv proxy'si yüklenmez.
+    @Query("""
+            select new com.ghosting.analyzer.analysis.dto.AnalysisSummary(
+                a.id, a.cv.id, a.jobTitle, a.company, a.country, a.status, a.createdAt)
+            from Analysis a
+            where a.user.id = :userId
+            order by a.createdAt desc, a.id desc
+            """)
+    List<AnalysisSummary> findFirstPage(@Param("userId") UUID userId, Pageable limit);
+
+    @Query("""
+            select new com.ghosting.analyzer.analysis.dto.AnalysisSummary(
+                a.id, a.cv.id, a.jobTitle, a.company, a.country, a.status, a.createdAt)
+            from Analysis a
+            where a.user.id = :userId
+              and (a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id < :id))
+            order by a.createdAt desc, a.id desc
+            """)
+    List<AnalysisSummary> findPageAfter(
+            @Param("userId") UUID userId,
+            @Param("createdAt") Instant createdAt,
+            @Param("id") UUID id,
+            Pageable limit
+    );
+
+    // enrichment sonucu: select + dirty-check yerine tek UPDATE
+    @Transactional
+    @Modifying
+    @Query("update Analysis a set a.resultJson = :resultJson, a.status = :status where a.id = :id")
+    int updateResult(@Param("id") UUID id, @Param("resultJson") String resultJson, @Param("status") AnalysisStatus status);
+
+    @Transactional
+    @Modifying
+    @Query("update Analysis a set a.status = :status where a.id = :id")
+    int updateStatus(@Param("id") UUID id, @Param("status") AnalysisStatus status);
 }
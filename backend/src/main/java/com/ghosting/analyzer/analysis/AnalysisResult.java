@@ -0,0 +1,38 @@
+package com.ghosting.analyzer.analysis;
+
+import java.util.List;
+
+// analyses.result_json şeması (engine ve AI aynı tipi üretir).
+// JSON alan adları snake_case; okuma/yazma AnalysisJson'da tek geçişte yapılır.
+public record AnalysisResult(
+        double ghostingProbability,
+        int matchScore,
+        int atsReadabilityScore,
+        String seniorityGuess,
+        String roleGuess,
+        List<Reason> topRejectionReasons,
+        List<String> missingSkills,
+        List<Fix> fixes,
+        List<Rewrite> rewriteSuggestions
+) {
+    public record Reason(String reason, double confidence) {}
+
+    public record Fix(String area, String action) {}
+
+    public record Rewrite(String original, String improved) {}
+
+    // AI yorumu kalır, skorlar engine'den gelir
+    public AnalysisResult withScores(AnalysisResult engine) {
+        return new AnalysisResult(
+                engine.ghostingProbability(),
+                engine.matchScore(),
+                engine.atsReadabilityScore(),
+                seniorityGuess,
+                roleGuess,
+                topRejectionReasons,
+                missingSkills,
+                fixes,
+                rewriteSuggestions
+        );
+    }
+}
@@ -0,0 +1,8 @@
+package com.ghosting.analyzer.analysis;
+
+public enum AnalysisStatus {
+    PENDING,   // engine sonucu kaydedildi, AI zenginleştirme bekleniyor
+    ENRICHED,  // AI yorumu eklendi (skorlar engine'den)
+    FAILED,    // AI başarısız, engine sonucu kalıcı
+    ENGINE_ONLY // kullanıcının AI kotası doluydu (AiRateLimiter, degrade), AI hiç çağrılmadı
+}
@@ -0,0 +1,93 @@
+package com.ghosting.analyzer.analysis;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Analiz başına SSE yayını: AI worker token delta'larını buraya basar, GET /api/analyses/{id}/stream dinleyicileri alır.
+// Olaylar: "scores" (engine sonucu, bağlanır bağlanmaz), "delta" (AI metin parçası), "result" (son durum + json).
+// Geç bağlanan dinleyici o ana kadar biriken metni tek bir "delta" olarak alır.
+@Component
+public class AnalysisStreamHub {
+
+    private final Map<UUID, Channel> channels = new ConcurrentHashMap<>();
+    private final long emitterTimeoutMs;
+
+    public AnalysisStreamHub(@Value("${app.ai.stream.emitterTimeoutMs:120000}") long emitterTimeoutMs) {
+        this.emitterTimeoutMs = emitterTimeoutMs;
+    }
+
+    public record Result(AnalysisStatus status, String resultJson, Long ttfbMs) {}
+
+    private static final class Channel {
+        final StringBuilder text = new StringBuilder();
+        final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        volatile boolean active; // worker üretiyor
+    }
+
+    // Worker zenginleştirmeye başlarken
+    public void open(UUID analysisId) {
+        channels.computeIfAbsent(analysisId, id -> new Channel()).active = true;
+    }
+
+    public SseEmitter subscribe(UUID analysisId, String scoresJson) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Channel ch = channels.computeIfAbsent(analysisId, id -> new Channel());
+
+        Runnable cleanup = () -> {
+            ch.emitters.remove(emitter);
+            if (ch.emitters.isEmpty() && !ch.active) channels.remove(analysisId, ch);
+        };
+        emitter.onCompletion(cleanup);
+        emitter.onTimeout(cleanup);
+        emitter.onError(e -> cleanup.run());
+
+        send(emitter, "scores", scoresJson, MediaType.APPLICATION_JSON);
+        synchronized (ch) {
+            if (ch.text.length() > 0) send(emitter, "delta", ch.text.toString(), MediaType.TEXT_PLAIN);
+            ch.emitters.add(emitter);
+        }
+        return emitter;
+    }
+
+    public void delta(UUID analysisId, String chunk) {
+        Channel ch = channels.get(analysisId);
+        if (ch == null) return;
+        synchronized (ch) {
+            ch.text.append(chunk);
+            for (SseEmitter e : ch.emitters) send(e, "delta", chunk, MediaType.TEXT_PLAIN);
+        }
+    }
+
+    // Sonuç DB'ye yazıldıktan sonra çağrılır
+    public void complete(UUID analysisId, Result result) {
+        Channel ch = channels.remove(analysisId);
+        if (ch == null) return;
+        ch.active = false;
+        for (SseEmitter e : ch.emitters) finish(e, result);
+    }
+
+    // Dinleyici bağlandığında iş zaten bitmişse
+    public void finish(SseEmitter emitter, Result result) {
+        send(emitter, "result", result, MediaType.APPLICATION_JSON);
+        try {
+            emitter.complete();
+        } catch (Exception ignored) {}
+    }
+
+    private void send(SseEmitter emitter, String event, Object data, MediaType type) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data, type));
+        } catch (Exception e) {
+            // istemci kopmuş olabilir; cleanup callback'i kaydı siler
+            emitter.completeWithError(e);
+        }
+    }
+}
@@ -1,28 +1,91 @@
 package com.ghosting.analyzer.analysis;
 
+import com.ghosting.analyzer.cv.CvTokenIndex;
+import com.ghosting.analyzer.text.SkillDictionary;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.function.IntPredicate;
 
 @Service
 public class GhostingAnalyzerEngine {
 
+    private static final List<AnalysisResult.Reason> REASONS = List.of(
+            new AnalysisResult.Reason("İlan anahtar kelimeleri CV'de eksik", 0.74),
+            new AnalysisResult.Reason("Deneyim maddeleri ölçülebilir sonuç içermiyor olabilir", 0.62)
+    );
+
+    private static final List<AnalysisResult.Fix> FIXES = List.of(
+            new AnalysisResult.Fix("Özet", "İlanla aynı role odaklı 1 satırlık net özet ekle"),
+            new AnalysisResult.Fix("Skills", "Eksik teknolojileri varsa skills'e ekle; yoksa 'Learning' bölümüne koy"),
+            new AnalysisResult.Fix("Deneyim", "Her maddeyi etki + metrik ile yaz (örn: %20 hızlandı)")
+    );
+
+    private static final List<AnalysisResult.Rewrite> REWRITES = List.of(
+            new AnalysisResult.Rewrite("Developed APIs", "Built REST APIs and improved response times via caching and indexing")
+    );
+
+    private final SkillDictionary skills = SkillDictionary.bundled();
+
+    // JD terimleri: önce taxonomy'deki kanonik skill'ler (k8s = kubernetes), kalan bütçe genel keyword'ler.
+    // Bir alias'ın parçası olan token'lar ("spring", "boot", "k8s") genel keyword olarak tekrar sayılmaz.
+    private record JdTerms(int[] skills, List<String> keywords) {
+        int size() {
+            return skills.length + keywords.size();
+        }
+    }
+
     // MVP: Basit keyword match + readability + dummy reasons
-    public String analyze(String cvText, String jdText) {
-        var cv = normalize(cvText);
-        var jd = normalize(jdText);
+    // Index yoksa: CV skill'leri sözlükle, genel keyword'ler Aho-Corasick ile tek geçişte aranır
+    public AnalysisResult analyze(String cvText, String jdText) {
+        var jd = jdTerms(jdText);
+        var cvSkills = skills.scan(cvText);
+        var hits = KeywordMatcher.compile(jd.keywords()).scan(cvText);
+        return analyze(cvText, jdText, jd, cvSkills::found, hits::found);
+    }
+
+    // cvIndex upload sırasında hazırlanır; CV metni her analizde yeniden taranmaz
+    // (eski taxonomy ile kurulmuş index'te skill'ler metinden taranır)
+    public AnalysisResult analyze(String cvText, CvTokenIndex cvIndex, String jdText) {
+        var jd = jdTerms(jdText);
+        IntPredicate skillInCv;
+        if (cvIndex.hasSkills(skills)) {
+            skillInCv = s -> cvIndex.containsSkill(skills, s);
+        } else {
+            skillInCv = skills.scan(cvText)::found;
+        }
+        return analyze(cvText, jdText, jd, skillInCv, i -> cvIndex.contains(jd.keywords().get(i)));
+    }
+
+    private JdTerms jdTerms(String jdText) {
+        SkillDictionary.Hits hits = skills.scan(jdText);
+        int[] jdSkills = hits.ranked();
+        if (jdSkills.length > KeywordExtractor.DEFAULT_LIMIT) jdSkills = Arrays.copyOf(jdSkills, KeywordExtractor.DEFAULT_LIMIT);
+
+        int budget = KeywordExtractor.DEFAULT_LIMIT - jdSkills.length;
+        List<String> keywords = new ArrayList<>(budget);
+        for (String k : KeywordExtractor.extract(jdText)) {
+            if (keywords.size() == budget) break;
+            // sadece JD'de eşleşen alias'ların token'ları düşer ("spring security" -> spring-security; tek "security" kalır)
+            if (!hits.covers(k)) keywords.add(k);
+        }
+        return new JdTerms(jdSkills, keywords);
+    }
 
-        var jdKeywords = extractKeywords(jd);
+    private AnalysisResult analyze(String cvText, String jdText, JdTerms jd, IntPredicate skillInCv, IntPredicate keywordInCv) {
         int matched = 0;
         List<String> missing = new ArrayList<>();
 
-        for (String k : jdKeywords) {
-            if (cv.contains(k)) matched++;
-            else missing.add(k);
+        for (int s : jd.skills()) {
+            if (skillInCv.test(s)) matched++;
+            else missing.add(skills.skill(s).name());
+        }
+        for (int i = 0; i < jd.keywords().size(); i++) {
+            if (keywordInCv.test(i)) matched++;
+            else missing.add(jd.keywords().get(i));
         }
 
-        int total = Math.max(1, jdKeywords.size());
+        int total = Math.max(1, jd.size());
         int matchScore = (int) Math.round((matched * 100.0) / total);
 
         int atsReadability = estimateReadability(cvText);
@@ -31,63 +94,19 @@ public class GhostingAnalyzerEngine {
         // Limit missing list for UI
         List<String> missingTop = missing.stream().limit(10).toList();
 
-
-        return """
-      {
-        "ghosting_probability": %s,
-        "match_score": %d,
-        "ats_readability_score": %d,
-        "seniority_guess": "%s",
-        "role_guess": "%s",
-        "top_rejection_reasons": [
-          {"reason": "İlan anahtar kelimeleri CV'de eksik", "confidence": 0.74},
-          {"reason": "Deneyim maddeleri ölçülebilir sonuç içermiyor olabilir", "confidence": 0.62}
-        ],
-        "missing_skills": %s,
-        "fixes": [
-          {"area": "Özet", "action": "İlanla aynı role odaklı 1 satırlık net özet ekle"},
-          {"area": "Skills", "action": "Eksik teknolojileri varsa skills'e ekle; yoksa 'Learning' bölümüne koy"},
-          {"area": "Deneyim", "action": "Her maddeyi etki + metrik ile yaz (örn: %%20 hızlandı)"}
-        ],
-        "rewrite_suggestions": [
-          {"original": "Developed APIs", "improved": "Built REST APIs and improved response times via caching and indexing"}
-        ]
-      }
-    """.formatted(
-                String.format(Locale.US, "%.2f", ghostProb),
+        return new AnalysisResult(
+                Math.round(ghostProb * 100) / 100.0,
                 matchScore,
                 atsReadability,
                 guessSeniority(matchScore),
                 guessRole(jdText),
-                toJsonArray(missingTop)
+                REASONS,
+                missingTop,
+                FIXES,
+                REWRITES
         );
     }
 
-    private String normalize(String s) {
-        return (s == null ? "" : s).toLowerCase(Locale.ROOT);
-    }
-
-    private List<String> extractKeywords(String jd) {
-
-        var tokens = jd.split("[^a-z0-9+#.]+");
-        var stop = Set.of("and","or","the","with","for","to","in","of","a","an","on","as","is","are","we","you","our","your","will","be","at");
-        var techLike = Pattern.compile("^[a-z][a-z0-9+#.]{1,20}$");
-
-        Map<String,Integer> freq = new HashMap<>();
-        for (String t : tokens) {
-            if (t.length() < 2) continue;
-            if (stop.contains(t)) continue;
-            if (!techLike.matcher(t).matches()) continue;
-            freq.put(t, freq.getOrDefault(t, 0) + 1);
-        }
-
-        return freq.entrySet().stream()
-                .sorted((a,b) -> Integer.compare(b.getValue(), a.getValue()))
-                .map(Map.Entry::getKey)
-                .limit(25)
-                .toList();
-    }
-
     private int estimateReadability(String cvText) {
 
         if (cvText == null || cvText.isBlank()) return 20;
@@ -121,15 +140,4 @@ public class GhostingAnalyzerEngine {
         if (t.contains("qa") || t.contains("test")) return "QA / Test Automation";
         return "Software Developer";
     }
-
-    private String toJsonArray(List<String> items) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("[");
-        for (int i = 0; i < items.size(); i++) {
-            sb.append("\"").append(items.get(i).replace("\"","")).append("\"");
-            if (i < items.size() - 1) sb.append(",");
-        }
-        sb.append("]");
-        return sb.toString();
-    }
 }
@@ -2,70 +2,77 @@ package com.ghosting.analyzer.analysis;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ghosting.analyzer.analysis.hf.HfRouterClient;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class HuggingFaceAiService {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final HfRouterClient hfRouterClient;
     private final ObjectMapper om = new ObjectMapper();
 
     @Value("${app.ai.hf.apiKey}")
     private String apiKey;
 
+    // OpenAI uyumlu chat-completions endpoint'i (load test'te yerel sahte sunucu)
+    @Value("${app.ai.hf.url:https://router.huggingface.co/v1/chat/completions}")
+    private String url;
+
     @Value("${app.ai.hf.model:mistralai/Mistral-7B-Instruct-v0.3}")
     private String model;
 
-    public String generate(String prompt) {
-        String url = "https://router.huggingface.co/v1/chat/completions";
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(apiKey);
-        headers.setContentType(MediaType.APPLICATION_JSON);
+    // Tüm retry'lar dahil bir generate çağrısının toplam süresi
+    @Value("${app.ai.hf.http.totalDeadlineMs:60000}")
+    private long totalDeadlineMs;
 
-        Map<String, Object> body = Map.of(
-                "model", model,
-                "messages", java.util.List.of(
-                        Map.of("role", "system", "content",
-                                "Return ONLY valid JSON. No markdown. No extra text."),
-                        Map.of("role", "user", "content", prompt)
-                ),
-                "temperature", 0.2,
-                "max_tokens", 900
-        );
+    public String model() {
+        return model;
+    }
 
-        HttpEntity<Map<String, Object>> req = new HttpEntity<>(body, headers);
+    public String generate(String prompt) {
+        String json = requestJson(prompt, false);
 
+        long deadline = System.nanoTime() + totalDeadlineMs * 1_000_000L;
         String lastRaw = "";
 
         for (int attempt = 1; attempt <= 6; attempt++) {
-            ResponseEntity<String> res;
+            if (System.nanoTime() >= deadline) break;
+
+            HttpResponse<String> res;
             String raw;
 
             try {
-                res = restTemplate.postForEntity(url, req, String.class);
-                raw = (res.getBody() == null) ? "" : res.getBody();
+                res = hfRouterClient.postJson(url, apiKey, json).get();
+                raw = (res.body() == null) ? "" : res.body();
                 lastRaw = raw;
-            } catch (Exception ex) {
-                lastRaw = ex.getMessage() == null ? "request exception" : ex.getMessage();
-                sleepBackoff(attempt);
+            } catch (ExecutionException ex) {
+                // devre açık / bulkhead dolu -> beklemeden engine-only
+                if (ex.getCause() instanceof HfRouterClient.RejectedException rejected) throw rejected;
+                lastRaw = ex.getCause() == null || ex.getCause().getMessage() == null ? "request exception" : ex.getCause().getMessage();
+                sleepBackoff(attempt, deadline);
                 continue;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("HF call interrupted", ex);
             }
 
-            if (!res.getStatusCode().is2xxSuccessful()) {
-                sleepBackoff(attempt);
+            if (res.statusCode() < 200 || res.statusCode() >= 300) {
+                sleepBackoff(attempt, deadline);
                 continue;
             }
 
             if (isTemporaryIssue(raw)) {
-                sleepBackoff(attempt);
+                sleepBackoff(attempt, deadline);
                 continue;
             }
 
@@ -75,6 +82,77 @@ public class HuggingFaceAiService {
         throw new RuntimeException("HF router not ready / temporary errors after retries. lastRaw=" + lastRaw);
     }
 
+    // stream: true ile token delta'ları geldikçe onDelta'ya verir, tamamlanınca birleşik metni döner.
+    // İlk içerik gelmeden hata olursa retry'lı generate'e düşer (onDelta o durumda tek parça tüm metni alır).
+    public String generateStreaming(String prompt, Consumer<String> onDelta) {
+        StringBuilder full = new StringBuilder();
+        int status;
+        try {
+            status = hfRouterClient.streamLines(url, apiKey, requestJson(prompt, true), line -> {
+                String delta = extractStreamDelta(line);
+                if (delta != null && !delta.isEmpty()) {
+                    full.append(delta);
+                    onDelta.accept(delta);
+                }
+            });
+        } catch (HfRouterClient.RejectedException rejected) {
+            throw rejected;
+        } catch (RuntimeException e) {
+            if (full.length() > 0) throw e;
+            status = -1;
+        }
+
+        if (status == 200 && full.length() > 0) return full.toString();
+        if (full.length() > 0) throw new RuntimeException("HF stream ended with status " + status);
+
+        String text = generate(prompt);
+        onDelta.accept(text);
+        return text;
+    }
+
+    // "data: {...choices[0].delta.content...}" -> content; "data: [DONE]", boş satır, yorum -> null
+    private String extractStreamDelta(String line) {
+        if (line == null || !line.startsWith("data:")) return null;
+        String payload = line.substring(5).trim();
+        if (payload.isEmpty() || payload.equals("[DONE]")) return null;
+
+        try {
+            JsonNode root = om.readTree(payload);
+            if (root.has("error")) {
+                throw new RuntimeException("HF router error: " + root.get("error").toString());
+            }
+            JsonNode choices = root.get("choices");
+            if (choices != null && choices.isArray() && choices.size() > 0) {
+                JsonNode delta = choices.get(0).get("delta");
+                if (delta != null && delta.hasNonNull("content")) return delta.get("content").asText();
+            }
+            return null;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse stream chunk: " + payload, e);
+        }
+    }
+
+    private String requestJson(String prompt, boolean stream) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("model", model);
+        body.put("messages", List.of(
+                Map.of("role", "system", "content",
+                        "Return ONLY valid JSON. No markdown. No extra text."),
+                Map.of("role", "user", "content", prompt)
+        ));
+        body.put("temperature", 0.2);
+        body.put("max_tokens", 900);
+        if (stream) body.put("stream", true);
+
+        try {
+            return om.writeValueAsString(body);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize HF request", e);
+        }
+    }
+
     private String extractMessageContent(String rawJson) {
         try {
             JsonNode root = om.readTree(rawJson);
@@ -108,11 +186,14 @@ public class HuggingFaceAiService {
                 || r.contains("estimated_time");
     }
 
-    private void sleepBackoff(int attempt) {
+    private void sleepBackoff(int attempt, long deadline) {
         try {
-            long ms = Math.min(9000L, 1500L * attempt);
-            Thread.sleep(ms);
-        } catch (InterruptedException ignored) {}
+            long remainingMs = (deadline - System.nanoTime()) / 1_000_000L;
+            long ms = Math.min(Math.min(9000L, 1500L * attempt), remainingMs);
+            if (ms > 0) Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     private String extractCompletionText(String rawJson) {
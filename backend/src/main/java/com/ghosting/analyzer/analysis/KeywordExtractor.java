@@ -0,0 +1,250 @@
+package com.ghosting.analyzer.analysis;
+
+import com.ghosting.analyzer.text.TokenChars;
+
+import java.util.Arrays;
+import java.util.List;
+
+// JD'den en sık geçen keyword'leri çıkarır.
+// Kurallar eski regex akışıyla aynı: token = [a-z0-9+#.] koşusu, harfle başlar, uzunluk 2-21, stop listesi hariç.
+// Tek geçişte elle yazılmış karakter taraması; sayım primitive open-addressing tabloda, top-K sınırlı min-heap ile.
+// Token başına allocation yok; thread başına scratch tekrar kullanılır, String yalnızca dönen K keyword için üretilir.
+public final class KeywordExtractor {
+
+    public static final int DEFAULT_LIMIT = 25;
+
+    private static final int MIN_LEN = 2;
+    private static final int MAX_LEN = 21;
+
+    private static final String[] STOP_WORDS = {
+            "and", "or", "the", "with", "for", "to", "in", "of", "a", "an", "on",
+            "as", "is", "are", "we", "you", "our", "your", "will", "be", "at"
+    };
+    private static final int STOP_MASK = 63;
+    private static final String[] STOP_TABLE = new String[STOP_MASK + 1];
+
+    static {
+        for (String w : STOP_WORDS) {
+            int slot = hash(w) & STOP_MASK;
+            while (STOP_TABLE[slot] != null) slot = (slot + 1) & STOP_MASK;
+            STOP_TABLE[slot] = w;
+        }
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private KeywordExtractor() {}
+
+    public static List<String> extract(CharSequence text) {
+        return extract(text, DEFAULT_LIMIT);
+    }
+
+    // Sıra: frekans azalan; eşitlikte metinde ilk görülen önce
+    public static List<String> extract(CharSequence text, int limit) {
+        if (text == null || limit <= 0) return List.of();
+
+        Scratch sc = SCRATCH.get();
+        sc.reset();
+
+        char[] tok = sc.tok;
+        int tl = 0;
+        int h = 0;
+        int n = text.length();
+
+        for (int i = 0; i <= n; i++) {
+            char c = i < n ? TokenChars.fold(text.charAt(i)) : 0;
+            if (c != 0) {
+                if (tl < MAX_LEN) {
+                    tok[tl] = c;
+                    h = 31 * h + c;
+                }
+                tl++;
+                continue;
+            }
+            if (tl >= MIN_LEN && tl <= MAX_LEN && tok[0] >= 'a' && tok[0] <= 'z' && !isStop(tok, tl, h)) {
+                sc.increment(tok, tl, h);
+            }
+            tl = 0;
+            h = 0;
+        }
+
+        return sc.topK(limit);
+    }
+
+    private static boolean isStop(char[] tok, int len, int h) {
+        if (len > 5) return false; // en uzun stop kelime "your"/"with"/"will"
+        int slot = h & STOP_MASK;
+        String w;
+        while ((w = STOP_TABLE[slot]) != null) {
+            if (w.length() == len && equals(w, tok, len)) return true;
+            slot = (slot + 1) & STOP_MASK;
+        }
+        return false;
+    }
+
+    private static boolean equals(String w, char[] tok, int len) {
+        for (int i = 0; i < len; i++) if (w.charAt(i) != tok[i]) return false;
+        return true;
+    }
+
+    private static int hash(String s) {
+        int h = 0;
+        for (int i = 0; i < s.length(); i++) h = 31 * h + s.charAt(i);
+        return h;
+    }
+
+    private static int mix(int h) {
+        h ^= (h >>> 16);
+        h *= 0x45d9f3b;
+        return h ^ (h >>> 16);
+    }
+
+    // Çağrılar arası tekrar kullanılan tablolar; çok büyük bir JD'den sonra küçültülür
+    private static final class Scratch {
+        private static final int INITIAL_SLOTS = 256;
+        private static final int INITIAL_ENTRIES = 128;
+        private static final int INITIAL_ARENA = 4096;
+        private static final int RETAIN_LIMIT_SLOTS = 1 << 14;
+
+        final char[] tok = new char[MAX_LEN];
+
+        char[] arena = new char[INITIAL_ARENA];
+        int arenaLen;
+
+        int[] slots = new int[INITIAL_SLOTS]; // entry index + 1, 0 = boş
+        int[] hashes = new int[INITIAL_ENTRIES];
+        int[] offsets = new int[INITIAL_ENTRIES];
+        int[] lengths = new int[INITIAL_ENTRIES];
+        int[] counts = new int[INITIAL_ENTRIES];
+        int size;
+
+        int[] heap = new int[KeywordExtractor.DEFAULT_LIMIT];
+
+        void reset() {
+            if (slots.length > RETAIN_LIMIT_SLOTS) {
+                slots = new int[INITIAL_SLOTS];
+                hashes = new int[INITIAL_ENTRIES];
+                offsets = new int[INITIAL_ENTRIES];
+                lengths = new int[INITIAL_ENTRIES];
+                counts = new int[INITIAL_ENTRIES];
+                arena = new char[INITIAL_ARENA];
+            } else {
+                Arrays.fill(slots, 0);
+            }
+            arenaLen = 0;
+            size = 0;
+        }
+
+        void increment(char[] tok, int len, int h) {
+            int mask = slots.length - 1;
+            int slot = mix(h) & mask;
+            int e;
+            while ((e = slots[slot]) != 0) {
+                int idx = e - 1;
+                if (hashes[idx] == h && lengths[idx] == len && sameChars(idx, tok, len)) {
+                    counts[idx]++;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            if (size == hashes.length) growEntries();
+            if (arenaLen + len > arena.length) arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaLen + len));
+
+            int idx = size++;
+            System.arraycopy(tok, 0, arena, arenaLen, len);
+            hashes[idx] = h;
+            offsets[idx] = arenaLen;
+            lengths[idx] = len;
+            counts[idx] = 1;
+            arenaLen += len;
+            slots[slot] = idx + 1;
+
+            if (size * 2 > slots.length) rehash();
+        }
+
+        private boolean sameChars(int idx, char[] tok, int len) {
+            int off = offsets[idx];
+            for (int i = 0; i < len; i++) if (arena[off + i] != tok[i]) return false;
+            return true;
+        }
+
+        private void growEntries() {
+            int cap = hashes.length * 2;
+            hashes = Arrays.copyOf(hashes, cap);
+            offsets = Arrays.copyOf(offsets, cap);
+            lengths = Arrays.copyOf(lengths, cap);
+            counts = Arrays.copyOf(counts, cap);
+        }
+
+        private void rehash() {
+            int[] bigger = new int[slots.length * 2];
+            int mask = bigger.length - 1;
+            for (int idx = 0; idx < size; idx++) {
+                int slot = mix(hashes[idx]) & mask;
+                while (bigger[slot] != 0) slot = (slot + 1) & mask;
+                bigger[slot] = idx + 1;
+            }
+            slots = bigger;
+        }
+
+        // entry index'i aynı zamanda ilk görülme sırası
+        private boolean worse(int a, int b) {
+            if (counts[a] != counts[b]) return counts[a] < counts[b];
+            return a > b;
+        }
+
+        List<String> topK(int k) {
+            if (heap.length < Math.min(k, size)) heap = new int[Math.min(k, size)];
+            int hs = 0;
+
+            // kök = tutulanların en kötüsü
+            for (int idx = 0; idx < size; idx++) {
+                if (hs < k) {
+                    heap[hs] = idx;
+                    siftUp(hs++);
+                } else if (worse(heap[0], idx)) {
+                    heap[0] = idx;
+                    siftDown(0, hs);
+                }
+            }
+
+            String[] out = new String[hs];
+            for (int i = hs - 1; i >= 0; i--) {
+                int idx = heap[0];
+                out[i] = new String(arena, offsets[idx], lengths[idx]);
+                heap[0] = heap[i];
+                siftDown(0, i);
+            }
+
+            return List.of(out);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int p = (i - 1) >>> 1;
+                if (!worse(heap[i], heap[p])) break;
+                swap(i, p);
+                i = p;
+            }
+        }
+
+        private void siftDown(int i, int n) {
+            while (true) {
+                int l = 2 * i + 1;
+                if (l >= n) return;
+                int r = l + 1;
+                int m = (r < n && worse(heap[r], heap[l])) ? r : l;
+                if (!worse(heap[m], heap[i])) return;
+                swap(i, m);
+                i = m;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int t = heap[a];
+            heap[a] = heap[b];
+            heap[b] = t;
+        }
+    }
+}
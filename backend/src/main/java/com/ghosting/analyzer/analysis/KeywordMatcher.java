@@ -0,0 +1,199 @@
+package com.ghosting.analyzer.analysis;
+
+import com.ghosting.analyzer.text.TokenChars;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Aho-Corasick: tüm keyword'leri metin üzerinde tek geçişte bulur.
+// - alfabe engine token karakterleri: [a-z0-9+#.] (metin tarama sırasında TokenChars ile katlanır, kopya üretilmez)
+// - eşleşme yalnızca token sınırındaysa sayılır ("java", "javascript" içinde bulunmaz);
+//   tokenın başındaki/sonundaki noktalar sınır kabul edilir ("java." -> "java")
+// - goto + failure geçişleri önceden DFA'ya açılır, tarama sırasında failure zinciri yürünmez
+public final class KeywordMatcher {
+
+    private static final int ALPHABET = 39;
+    private static final int[] SYMBOL = new int[128];
+
+    static {
+        Arrays.fill(SYMBOL, -1);
+        for (char c = 'a'; c <= 'z'; c++) SYMBOL[c] = c - 'a';
+        for (char c = '0'; c <= '9'; c++) SYMBOL[c] = 26 + (c - '0');
+        SYMBOL['+'] = 36;
+        SYMBOL['#'] = 37;
+        SYMBOL['.'] = 38;
+    }
+
+    private final List<String> keywords;
+    private final int[][] next;      // [state][symbol] -> state
+    private final int[][] outputs;   // state -> biten keyword id'leri (suffix çıktıları dahil)
+    private final int[] lengths;
+
+    private KeywordMatcher(List<String> keywords, int[][] next, int[][] outputs, int[] lengths) {
+        this.keywords = keywords;
+        this.next = next;
+        this.outputs = outputs;
+        this.lengths = lengths;
+    }
+
+    public record Match(int keyword, int start, int end) {}
+
+    public static final class Result {
+        private final int[] counts;
+        private final List<Match> matches;
+
+        private Result(int[] counts, List<Match> matches) {
+            this.counts = counts;
+            this.matches = matches;
+        }
+
+        public boolean found(int keyword) {
+            return counts[keyword] > 0;
+        }
+
+        public int count(int keyword) {
+            return counts[keyword];
+        }
+
+        public int distinctFound() {
+            int n = 0;
+            for (int c : counts) if (c > 0) n++;
+            return n;
+        }
+
+        // metindeki sırayla
+        public List<Match> matches() {
+            return matches;
+        }
+    }
+
+    // keyword'ler küçük harf ve [a-z0-9+#.] olmalı; alfabe dışı karakter içerenler hiç eşleşmez
+    public static KeywordMatcher compile(List<String> keywords) {
+        List<int[]> gotoRows = new ArrayList<>();
+        List<int[]> out = new ArrayList<>();
+        gotoRows.add(newRow());
+        out.add(new int[0]);
+
+        int[] lengths = new int[keywords.size()];
+        for (int k = 0; k < keywords.size(); k++) {
+            String w = keywords.get(k);
+            lengths[k] = w.length();
+            if (w.isEmpty() || !inAlphabet(w)) continue;
+
+            int s = 0;
+            for (int i = 0; i < w.length(); i++) {
+                int sym = SYMBOL[w.charAt(i)];
+                if (gotoRows.get(s)[sym] < 0) {
+                    gotoRows.get(s)[sym] = gotoRows.size();
+                    gotoRows.add(newRow());
+                    out.add(new int[0]);
+                }
+                s = gotoRows.get(s)[sym];
+            }
+            out.set(s, append(out.get(s), k));
+        }
+
+        int n = gotoRows.size();
+        int[][] next = gotoRows.toArray(new int[0][]);
+        int[][] outputs = out.toArray(new int[0][]);
+        int[] fail = new int[n];
+
+        // BFS: failure linkleri + eksik geçişleri doldur
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int sym = 0; sym < ALPHABET; sym++) {
+            int t = next[0][sym];
+            if (t < 0) {
+                next[0][sym] = 0;
+            } else {
+                fail[t] = 0;
+                queue.add(t);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            if (outputs[fail[s]].length > 0) outputs[s] = concat(outputs[s], outputs[fail[s]]);
+            for (int sym = 0; sym < ALPHABET; sym++) {
+                int t = next[s][sym];
+                if (t < 0) {
+                    next[s][sym] = next[fail[s]][sym];
+                } else {
+                    fail[t] = next[fail[s]][sym];
+                    queue.add(t);
+                }
+            }
+        }
+
+        return new KeywordMatcher(List.copyOf(keywords), next, outputs, lengths);
+    }
+
+    public List<String> keywords() {
+        return keywords;
+    }
+
+    public Result scan(CharSequence text) {
+        int[] counts = new int[keywords.size()];
+        List<Match> matches = new ArrayList<>();
+        if (text == null) return new Result(counts, matches);
+
+        int len = text.length();
+        int s = 0;
+        for (int i = 0; i < len; i++) {
+            char c = TokenChars.fold(text.charAt(i));
+            if (c == 0) {
+                s = 0;
+                continue;
+            }
+            s = next[s][SYMBOL[c]];
+
+            int[] ends = outputs[s];
+            for (int k : ends) {
+                int start = i + 1 - lengths[k];
+                if (isBoundaryBefore(text, start) && isBoundaryAfter(text, i + 1)) {
+                    counts[k]++;
+                    matches.add(new Match(k, start, i + 1));
+                }
+            }
+        }
+        return new Result(counts, matches);
+    }
+
+    private static boolean isBoundaryBefore(CharSequence text, int start) {
+        int k = start - 1;
+        while (k >= 0 && text.charAt(k) == '.') k--;
+        return k < 0 || !TokenChars.isTokenChar(text.charAt(k));
+    }
+
+    private static boolean isBoundaryAfter(CharSequence text, int end) {
+        int k = end;
+        while (k < text.length() && text.charAt(k) == '.') k++;
+        return k >= text.length() || !TokenChars.isTokenChar(text.charAt(k));
+    }
+
+    private static boolean inAlphabet(String w) {
+        for (int i = 0; i < w.length(); i++) {
+            char c = w.charAt(i);
+            if (c >= 128 || SYMBOL[c] < 0) return false;
+        }
+        return true;
+    }
+
+    private static int[] newRow() {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static int[] append(int[] a, int v) {
+        int[] r = Arrays.copyOf(a, a.length + 1);
+        r[a.length] = v;
+        return r;
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] r = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, r, a.length, b.length);
+        return r;
+    }
+}
@@ -0,0 +1,249 @@
+package com.ghosting.analyzer.analysis;
+
+import com.ghosting.analyzer.text.SkillDictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// LLM prompt'u için CV sıkıştırma: baştan kesmek yerine en ilgili bölümler token bütçesine sığdırılır.
+// 1) CV satırlara, boş satırlarla paragraflara bölünür; başlık satırları ("EXPERIENCE", "Yetenekler:") bölüm açar,
+//    uzun paragraflar satır sınırında MAX_SEGMENT_TOKENS'lık parçalara ayrılır
+// 2) her parça JD'ye göre puanlanır: JD'deki kanonik skill'ler (alias dahil) 2, JD keyword'leri 1 puan
+//    (keyword'ler tüm CV'de tek Aho-Corasick geçişiyle bulunur, eşleşme konumundan parçasına yazılır);
+//    CV'nin başına yakın parçalara küçük bir öncelik (özet + güncel deneyim)
+// 3) puan / token yoğunluğuna göre greedy doldurulur; bölüm başlığı ilk seçilen parçasıyla birlikte gelir
+// 4) seçilenler orijinal sırayla yazılır, atlanan aralıklar "[...]" ile işaretlenir
+final class PromptBudget {
+
+    static final String GAP = "[...]";
+    private static final int GAP_TOKENS = estimateTokens(GAP);
+
+    private static final int MAX_SEGMENT_TOKENS = 150;
+
+    private static final Set<String> HEADINGS = Set.of(
+            "summary", "profile", "about", "about me", "experience", "work experience", "professional experience",
+            "employment", "skills", "technical skills", "projects", "education", "certifications", "languages",
+            "özet", "hakkımda", "profil", "deneyim", "iş deneyimi", "yetenekler", "beceriler", "teknik beceriler",
+            "projeler", "eğitim", "sertifikalar", "diller"
+    );
+
+    private PromptBudget() {}
+
+    record Packed(String text, int tokensBefore, int tokensAfter, int segmentsKept, int segmentsTotal) {}
+
+    private static final class Segment {
+        final int start;
+        final int end;
+        final boolean header;
+        final int section;   // ait olduğu başlık segmentinin index'i, yoksa -1
+        final int tokens;
+        double value;
+        boolean kept;
+
+        Segment(int start, int end, boolean header, int section, int tokens) {
+            this.start = start;
+            this.end = end;
+            this.header = header;
+            this.section = section;
+            this.tokens = tokens;
+        }
+    }
+
+    // Yaklaşık BPE token sayısı (Llama tokenizer'ına yakın, tek geçiş, allocation yok):
+    // harf/rakam koşusu 1 + (uzunluk - 1) / 6 token, boşluk dışı her noktalama 1 token.
+    static int estimateTokens(CharSequence s) {
+        if (s == null) return 0;
+        int tokens = 0;
+        int run = 0;
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                run++;
+                continue;
+            }
+            if (run > 0) {
+                tokens += 1 + (run - 1) / 6;
+                run = 0;
+            }
+            if (!Character.isWhitespace(c)) tokens++;
+        }
+        if (run > 0) tokens += 1 + (run - 1) / 6;
+        return tokens;
+    }
+
+    static Packed pack(String cv, String jd, int budgetTokens, SkillDictionary skills) {
+        if (cv == null) return new Packed("", 0, 0, 0, 0);
+
+        int before = estimateTokens(cv);
+        if (before <= budgetTokens) return new Packed(cv, before, before, 1, 1);
+
+        List<Segment> segments = segment(cv);
+        score(cv, segments, jd, skills);
+
+        // yoğunluğa göre greedy; eşitlikte CV'deki sıra
+        Segment[] order = segments.stream().filter(s -> !s.header).toArray(Segment[]::new);
+        Arrays.sort(order, (a, b) -> {
+            int c = Double.compare(b.value / b.tokens, a.value / a.tokens);
+            return c != 0 ? c : Integer.compare(a.start, b.start);
+        });
+
+        int used = 0;
+        for (Segment s : order) {
+            Segment header = s.section >= 0 ? segments.get(s.section) : null;
+            // her parçanın önüne en kötü ihtimalle bir "[...]" düşer
+            int cost = s.tokens + GAP_TOKENS + (header != null && !header.kept ? header.tokens + GAP_TOKENS : 0);
+            if (used + cost > budgetTokens) continue;
+            s.kept = true;
+            if (header != null) header.kept = true;
+            used += cost;
+        }
+
+        StringBuilder out = new StringBuilder(Math.min(cv.length(), budgetTokens * 6));
+        boolean gap = false;
+        int kept = 0;
+        for (Segment s : segments) {
+            if (!s.kept) {
+                gap = true;
+                continue;
+            }
+            if (gap && out.length() > 0) out.append(GAP).append('\n');
+            gap = false;
+            out.append(cv, s.start, s.end).append('\n');
+            if (!s.header) kept++;
+        }
+        if (gap) out.append(GAP).append('\n');
+
+        String text = out.toString();
+        return new Packed(text, before, estimateTokens(text), kept, order.length);
+    }
+
+    private static List<Segment> segment(String cv) {
+        List<Segment> segments = new ArrayList<>();
+        int section = -1;
+        int paraStart = -1;
+        int paraEnd = -1;
+        int paraTokens = 0;
+
+        int n = cv.length();
+        int lineStart = 0;
+        while (lineStart <= n) {
+            int nl = cv.indexOf('\n', lineStart);
+            int lineEnd = nl < 0 ? n : nl;
+            int a = lineStart;
+            int b = lineEnd;
+            while (a < b && Character.isWhitespace(cv.charAt(a))) a++;
+            while (b > a && Character.isWhitespace(cv.charAt(b - 1))) b--;
+
+            boolean blank = a == b;
+            boolean header = !blank && isHeading(cv, a, b);
+
+            if (paraStart >= 0 && (blank || header)) {
+                segments.add(new Segment(paraStart, paraEnd, false, section, paraTokens));
+                paraStart = -1;
+                paraTokens = 0;
+            }
+
+            if (header) {
+                section = segments.size();
+                segments.add(new Segment(a, b, true, -1, estimateTokens(cv.subSequence(a, b))));
+            } else if (!blank) {
+                // satırsız gelen metin (bazı PDF'ler) tek dev satır olmasın: boşlukta parçalanır
+                int pa = a;
+                while (pa < b) {
+                    int pb = cut(cv, pa, b);
+                    int tokens = estimateTokens(cv.subSequence(pa, pb));
+
+                    // parça sınırı
+                    if (paraStart >= 0 && paraTokens + tokens > MAX_SEGMENT_TOKENS) {
+                        segments.add(new Segment(paraStart, paraEnd, false, section, paraTokens));
+                        paraStart = -1;
+                        paraTokens = 0;
+                    }
+                    if (paraStart < 0) paraStart = pa;
+                    paraEnd = pb;
+                    paraTokens += tokens;
+
+                    pa = pb;
+                    while (pa < b && Character.isWhitespace(cv.charAt(pa))) pa++;
+                }
+            }
+
+            if (nl < 0) break;
+            lineStart = nl + 1;
+        }
+        if (paraStart >= 0) segments.add(new Segment(paraStart, paraEnd, false, section, paraTokens));
+        return segments;
+    }
+
+    // [a, b) içinde yaklaşık MAX_SEGMENT_TOKENS token sonrasındaki ilk boşluk (yoksa b)
+    private static int cut(String cv, int a, int b) {
+        int maxChars = MAX_SEGMENT_TOKENS * 4;
+        if (b - a <= maxChars) return b;
+        for (int i = a + maxChars; i < b; i++) {
+            if (Character.isWhitespace(cv.charAt(i))) return i;
+        }
+        return b;
+    }
+
+    // kısa, cümle olmayan satır: bilinen başlık, "Başlık:" ya da tamamı büyük harf
+    private static boolean isHeading(String cv, int a, int b) {
+        int len = b - a;
+        if (len < 2 || len > 40) return false;
+        char last = cv.charAt(b - 1);
+        if (last == '.' || last == ',') return false;
+
+        String line = cv.substring(a, b);
+        String key = (last == ':' ? line.substring(0, len - 1) : line).strip().toLowerCase(Locale.ROOT);
+        if (HEADINGS.contains(key) || last == ':' && key.split("\\s+").length <= 3) return true;
+
+        // "AWS", "SQL" gibi tek kısaltmalar başlık sayılmaz
+        int letters = 0;
+        for (int i = a; i < b; i++) {
+            char c = cv.charAt(i);
+            if (Character.isLowerCase(c)) return false;
+            if (Character.isLetter(c)) letters++;
+        }
+        return letters >= 5;
+    }
+
+    private static void score(String cv, List<Segment> segments, String jd, SkillDictionary skills) {
+        List<String> keywords = KeywordExtractor.extract(jd);
+        List<KeywordMatcher.Match> matches = KeywordMatcher.compile(keywords).scan(cv).matches();
+        int[] jdSkills = skills.scan(jd).ranked();
+
+        // parça başına farklı keyword sayısı; parçalar ve eşleşmeler ikisi de metin sırasında (parçalar boşlukta
+        // bölündüğü için bir eşleşme iki parçaya taşmaz)
+        int[] lastSegment = new int[keywords.size()];
+        Arrays.fill(lastSegment, -1);
+        int m = 0;
+
+        int body = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            Segment s = segments.get(i);
+            while (m < matches.size() && matches.get(m).start() < s.start) m++;
+            if (s.header) continue;
+
+            double value = 0;
+            for (; m < matches.size() && matches.get(m).end() <= s.end; m++) {
+                int k = matches.get(m).keyword();
+                if (lastSegment[k] != i) {
+                    lastSegment[k] = i;
+                    value++;
+                }
+            }
+            SkillDictionary.Hits hits = skills.scan(cv.subSequence(s.start, s.end));
+            for (int skill : jdSkills) {
+                if (hits.found(skill)) value += 2;
+            }
+            // baştaki parçalar (özet, son pozisyon) ilgisiz görünse de hafif önde
+            value += 0.5 / (1 + body / 4.0);
+
+            s.value = value;
+            body++;
+        }
+    }
+}
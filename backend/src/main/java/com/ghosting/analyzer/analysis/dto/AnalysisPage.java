@@ -0,0 +1,9 @@
+package com.ghosting.analyzer.analysis.dto;
+
+import java.util.List;
+
+// nextCursor null -> son sayfa
+public record AnalysisPage(
+        List<AnalysisSummary> items,
+        String nextCursor
+) {}
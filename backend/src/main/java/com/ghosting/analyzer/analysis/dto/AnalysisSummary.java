@@ -0,0 +1,17 @@
+package com.ghosting.analyzer.analysis.dto;
+
+import com.ghosting.analyzer.analysis.AnalysisStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// History listesi için projection: job_description / result_json çekilmez
+public record AnalysisSummary(
+        UUID analysisId,
+        UUID cvId,
+        String jobTitle,
+        String company,
+        String country,
+        AnalysisStatus status,
+        Instant createdAt
+) {}
@@ -1,5 +1,7 @@
 package com.ghosting.analyzer.analysis.dto;
 
+import com.ghosting.analyzer.analysis.AnalysisStatus;
+
 import java.time.Instant;
 import java.util.UUID;
 
@@ -7,5 +9,6 @@ public record AnalyzeResponse(
         UUID analysisId,
         UUID cvId,
         String resultJson,
+        AnalysisStatus status,
         Instant createdAt
 ) {}
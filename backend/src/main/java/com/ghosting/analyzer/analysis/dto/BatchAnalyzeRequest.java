@@ -0,0 +1,22 @@
+package com.ghosting.analyzer.analysis.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+public record BatchAnalyzeRequest(
+        @NotNull UUID cvId,
+        @NotEmpty @Size(max = 50) List<@Valid Job> jobs
+) {
+    public record Job(
+            @NotBlank String jobDescription,
+            String company,
+            String jobTitle,
+            String country
+    ) {}
+}
@@ -0,0 +1,15 @@
+package com.ghosting.analyzer.analysis.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+// queued: AI kuyruğuna giden (PENDING) ilanlar, engineOnly: kota yüzünden sadece engine skoruyla kaydedilenler (sonuç hazır).
+// queued == 0 ise bekleyen AI işi yoktur (HTTP 200).
+public record BatchAnalyzeResponse(
+        UUID batchId,
+        UUID cvId,
+        int total,
+        int queued,
+        int engineOnly,
+        List<AnalyzeResponse> items
+) {}
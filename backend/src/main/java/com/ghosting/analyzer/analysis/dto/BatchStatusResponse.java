@@ -0,0 +1,18 @@
+package com.ghosting.analyzer.analysis.dto;
+
+import com.ghosting.analyzer.analysis.AnalysisStatus;
+
+import java.util.List;
+import java.util.UUID;
+
+public record BatchStatusResponse(
+        UUID batchId,
+        int total,
+        int pending,
+        int enriched,
+        int failed,
+        int engineOnly,
+        List<Item> items
+) {
+    public record Item(UUID analysisId, String jobTitle, String company, AnalysisStatus status) {}
+}
@@ -0,0 +1,100 @@
+package com.ghosting.analyzer.analysis.hf;
+
+import java.util.Arrays;
+
+// Son N çağrının başarı/hata penceresine bakan basit circuit breaker.
+// CLOSED -> (hata oranı eşiği aşarsa) OPEN -> (bekleme bitince) HALF_OPEN -> tek deneme -> CLOSED / OPEN
+public class CircuitBreaker {
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final boolean[] window;   // true = failure
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+
+    private int idx;
+    private int count;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(int windowSize, int minCalls, double failureRateThreshold, long openMillis) {
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minCalls = Math.max(1, Math.min(minCalls, window.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openMillis * 1_000_000L;
+    }
+
+    // false -> devre açık, çağrı yapılmadan engine-only yola düşülmeli
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) return false;
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) return false;
+            probeInFlight = true;
+        }
+        return true;
+    }
+
+    // İzin alınıp çağrı hiç yapılmadıysa (ör. bulkhead dolu) sonucu saymadan geri ver
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN) probeInFlight = false;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            close();
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (count >= minCalls && (failures * 1.0 / count) >= failureRateThreshold) open();
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public synchronized double failureRate() {
+        return count == 0 ? 0.0 : failures * 1.0 / count;
+    }
+
+    private void record(boolean failure) {
+        if (count == window.length) {
+            if (window[idx]) failures--;
+        } else {
+            count++;
+        }
+        window[idx] = failure;
+        if (failure) failures++;
+        idx = (idx + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        probeInFlight = false;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        probeInFlight = false;
+        idx = 0;
+        count = 0;
+        failures = 0;
+        Arrays.fill(window, false);
+    }
+}
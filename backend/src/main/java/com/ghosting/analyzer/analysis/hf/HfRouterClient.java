@@ -0,0 +1,295 @@
+package com.ghosting.analyzer.analysis.hf;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// HF router'a giden tüm çağrıların tek kapısı.
+// - JDK HttpClient: bağlantılar keep-alive ile havuzda tutulur ve tekrar kullanılır
+// - her çağrıya ayrı deadline; stream gövdesi için ayrıca toplam (callTimeout) ve boşta kalma (streamIdleMs) deadline'ı
+// - semaphore bulkhead: aynı anda en fazla maxConcurrent çağrı
+// - circuit breaker: hata oranı eşiği aşınca çağrı yapmadan hızlıca reddeder
+@Component
+public class HfRouterClient {
+
+    private final HttpClient http;
+    private final ExecutorService httpExecutor;
+    private final Semaphore bulkhead;
+    private final int maxConcurrent;
+    private final long bulkheadWaitMs;
+    private final Duration callTimeout;
+    private final long streamIdleMs;
+    private final CircuitBreaker breaker;
+    private final ScheduledExecutorService watchdog;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter success;
+    private final Counter failure;
+    private final Counter rejectedByCircuit;
+    private final Counter rejectedByBulkhead;
+    private final Counter streamTimeouts;
+
+    public HfRouterClient(
+            @Value("${app.ai.hf.http.connectTimeoutMs:3000}") long connectTimeoutMs,
+            @Value("${app.ai.hf.http.callTimeoutMs:45000}") long callTimeoutMs,
+            @Value("${app.ai.hf.http.streamIdleMs:15000}") long streamIdleMs,
+            @Value("${app.ai.hf.http.maxConcurrent:8}") int maxConcurrent,
+            @Value("${app.ai.hf.http.bulkheadWaitMs:250}") long bulkheadWaitMs,
+            @Value("${app.ai.hf.breaker.windowSize:20}") int windowSize,
+            @Value("${app.ai.hf.breaker.minCalls:5}") int minCalls,
+            @Value("${app.ai.hf.breaker.failureRateThreshold:0.5}") double failureRateThreshold,
+            @Value("${app.ai.hf.breaker.openMs:30000}") long openMs,
+            MeterRegistry registry
+    ) {
+        AtomicInteger seq = new AtomicInteger();
+        this.httpExecutor = Executors.newFixedThreadPool(Math.max(2, maxConcurrent / 2), r -> {
+            Thread t = new Thread(r, "hf-http-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(httpExecutor)
+                .build();
+
+        this.maxConcurrent = maxConcurrent;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.bulkheadWaitMs = bulkheadWaitMs;
+        this.callTimeout = Duration.ofMillis(callTimeoutMs);
+        this.streamIdleMs = streamIdleMs;
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "hf-stream-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        this.breaker = new CircuitBreaker(windowSize, minCalls, failureRateThreshold, openMs);
+
+        Gauge.builder("hf.circuit.state", breaker, b -> b.state().ordinal())
+                .description("0=closed, 1=half-open, 2=open")
+                .register(registry);
+        Gauge.builder("hf.circuit.failure_rate", breaker, CircuitBreaker::failureRate)
+                .register(registry);
+        Gauge.builder("hf.bulkhead.in_flight", inFlight, AtomicInteger::get)
+                .register(registry);
+        Gauge.builder("hf.bulkhead.saturation", this, c -> c.inFlight.get() / (double) c.maxConcurrent)
+                .description("in-flight / maxConcurrent")
+                .register(registry);
+
+        this.success = Counter.builder("hf.calls").tag("outcome", "success").register(registry);
+        this.failure = Counter.builder("hf.calls").tag("outcome", "failure").register(registry);
+        this.rejectedByCircuit = Counter.builder("hf.calls").tag("outcome", "rejected_circuit").register(registry);
+        this.rejectedByBulkhead = Counter.builder("hf.calls").tag("outcome", "rejected_bulkhead").register(registry);
+        this.streamTimeouts = Counter.builder("hf.stream.timeouts").register(registry);
+    }
+
+    // Devre açık ya da bulkhead dolu -> retry anlamsız, çağıran engine-only yola düşmeli
+    public static class RejectedException extends RuntimeException {
+        public RejectedException(String message) {
+            super(message);
+        }
+    }
+
+    // Slot HttpClient exchange'i gerçekten bitince bırakılır. Timeout (ya da çağıranın cancel'ı) exchange'i
+    // iptal eder: bağlantı kapatılır, gövde okuması durur; yoksa bırakılan slotun yerine yeni çağrı gelirken
+    // eski istek arka planda bağlantı ve bellek tutmaya devam ederdi.
+    public CompletableFuture<HttpResponse<String>> postJson(String url, String bearerToken, String jsonBody) {
+        RejectedException rejected = admit();
+        if (rejected != null) return CompletableFuture.failedFuture(rejected);
+
+        inFlight.incrementAndGet();
+        CompletableFuture<HttpResponse<String>> exchange = http
+                .sendAsync(request(url, bearerToken, jsonBody, "application/json"), HttpResponse.BodyHandlers.ofString());
+        exchange.whenComplete((res, ex) -> release(ex != null || isUnhealthy(res.statusCode())));
+
+        CompletableFuture<HttpResponse<String>> result = exchange.copy().orTimeout(callTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        result.whenComplete((res, ex) -> {
+            if (ex != null) exchange.cancel(true);
+        });
+        return result;
+    }
+
+    // stream: true çağrıları için; gövde satır satır onLine'a verilir (SSE "data: ..." satırları).
+    // Çağıran thread gövde bitene kadar bekler; bulkhead slotu stream kapanınca bırakılır.
+    // HttpRequest.timeout sadece header'lara kadar geçerli: gövde, çağrı başından callTimeout dolunca ya da
+    // streamIdleMs boyunca satır gelmezse watchdog tarafından kapatılır (breaker'a hata yazılır).
+    // Dönüş: HTTP status (200 dışı ise gövde okunmaz)
+    public int streamLines(String url, String bearerToken, String jsonBody, Consumer<String> onLine) {
+        RejectedException rejected = admit();
+        if (rejected != null) throw rejected;
+
+        inFlight.incrementAndGet();
+        long deadline = System.nanoTime() + callTimeout.toNanos();
+        boolean failed = true;
+        CompletableFuture<HttpResponse<Stream<String>>> exchange = null;
+        try {
+            exchange = http.sendAsync(request(url, bearerToken, jsonBody, "text/event-stream"), HttpResponse.BodyHandlers.ofLines());
+            HttpResponse<Stream<String>> res = exchange.get(callTimeout.toMillis(), TimeUnit.MILLISECONDS);
+
+            try (Stream<String> lines = res.body()) {
+                if (res.statusCode() != 200) {
+                    failed = isUnhealthy(res.statusCode());
+                    return res.statusCode();
+                }
+
+                BodyWatchdog dog = new BodyWatchdog(lines, deadline);
+                try {
+                    lines.forEach(line -> {
+                        dog.touch();
+                        onLine.accept(line);
+                    });
+                } catch (RuntimeException e) {
+                    if (dog.stop()) throw dog.timeout();
+                    throw e;
+                }
+                if (dog.stop()) throw dog.timeout();
+            }
+            failed = false;
+            return 200;
+        } catch (InterruptedException e) {
+            if (exchange != null) exchange.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("HF stream interrupted", e);
+        } catch (ExecutionException | TimeoutException e) {
+            if (exchange != null) exchange.cancel(true); // header'lar gelmedi: exchange arka planda sürmesin
+            throw new RuntimeException("HF stream failed: " + e.getMessage(), e);
+        } finally {
+            release(failed);
+        }
+    }
+
+    // Stream okuyan thread'i gözler: süre dolunca gövdeyi kapatır (subscription iptal, bağlantı bırakılır) ve
+    // okuyucuyu interrupt eder (ofLines okuması interrupt'ta IOException ile döner).
+    private final class BodyWatchdog {
+        private final Thread reader = Thread.currentThread();
+        private final Stream<String> body;
+        private final long deadline;
+        private final AtomicLong lastLine = new AtomicLong(System.nanoTime());
+        private final ScheduledFuture<?> task;
+        private String reason;  // null -> tetiklenmedi
+        private boolean stopped;
+
+        BodyWatchdog(Stream<String> body, long deadline) {
+            this.body = body;
+            this.deadline = deadline;
+            long tick = Math.max(50, Math.min(1000, streamIdleMs / 4));
+            this.task = watchdog.scheduleWithFixedDelay(this::check, tick, tick, TimeUnit.MILLISECONDS);
+        }
+
+        void touch() {
+            lastLine.set(System.nanoTime());
+        }
+
+        private void check() {
+            long now = System.nanoTime();
+            String why = now - deadline >= 0 ? "total " + callTimeout.toMillis() + " ms"
+                    : now - lastLine.get() >= TimeUnit.MILLISECONDS.toNanos(streamIdleMs) ? "idle " + streamIdleMs + " ms"
+                    : null;
+            if (why == null) return;
+
+            synchronized (this) {
+                if (stopped || reason != null) return;
+                reason = why;
+                reader.interrupt();
+            }
+            task.cancel(false);
+            body.close();
+        }
+
+        // okuyucu thread'den; true -> watchdog tetiklendi (interrupt bayrağı temizlenir)
+        synchronized boolean stop() {
+            stopped = true;
+            task.cancel(false);
+            if (reason == null) return false;
+            Thread.interrupted();
+            return true;
+        }
+
+        RuntimeException timeout() {
+            streamTimeouts.increment();
+            return new RuntimeException("HF stream timed out (" + reason + ")");
+        }
+    }
+
+    // null -> çağrı yapılabilir (breaker izni + bulkhead slotu alındı)
+    private RejectedException admit() {
+        if (!breaker.tryAcquirePermission()) {
+            rejectedByCircuit.increment();
+            return new RejectedException("HF circuit open");
+        }
+
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            breaker.releasePermission();
+            rejectedByBulkhead.increment();
+            return new RejectedException("HF bulkhead full");
+        }
+        return null;
+    }
+
+    private void release(boolean failed) {
+        inFlight.decrementAndGet();
+        bulkhead.release();
+
+        if (failed) {
+            breaker.onFailure();
+            failure.increment();
+        } else {
+            breaker.onSuccess();
+            success.increment();
+        }
+    }
+
+    // 429 / 5xx / timeout -> router sağlıksız sayılır
+    private static boolean isUnhealthy(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    private HttpRequest request(String url, String bearerToken, String jsonBody, String accept) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(callTimeout)
+                .header("Authorization", "Bearer " + bearerToken)
+                .header("Content-Type", "application/json")
+                .header("Accept", accept)
+                .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
+                .build();
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return breaker.state();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        watchdog.shutdownNow();
+        httpExecutor.shutdownNow();
+    }
+}
@@ -13,7 +13,9 @@ import java.util.UUID;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "cvs")
+@Table(name = "cvs",
+        uniqueConstraints = @UniqueConstraint(name = "uk_cvs_user_content_sha256", columnNames = {"user_id", "content_sha256"}),
+        indexes = @Index(name = "idx_cvs_content_sha256", columnList = "content_sha256"))
 public class Cv {
 
     @Id
@@ -27,9 +29,15 @@ public class Cv {
     @Column(nullable = false)
     private String filename;
 
+    // yüklenen dosyanın sha-256'sı (hex); eski kayıtlarda null
+    @Column(name = "content_sha256", length = 64)
+    private String contentSha256;
 
-    @Column(name = "raw_text", nullable = false, columnDefinition = "text")
-    private String rawText;
+    // ham metin cv_contents'ta (CvTextStore); liste sorguları onu çekmez
+
+    // CvTokenIndex.encode() çıktısı; eski kayıtlarda null, ilk analizde doldurulur
+    @Column(name = "token_index", columnDefinition = "text")
+    private String tokenIndex;
 
     @Column(nullable = false)
     private Instant createdAt;
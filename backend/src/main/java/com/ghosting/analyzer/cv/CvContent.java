@@ -0,0 +1,39 @@
+package com.ghosting.analyzer.cv;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// CV ham metni, cvs satırından ayrı ve sıkıştırılmış (deflate).
+// Liste / detay sorguları bu tabloya hiç dokunmaz; sadece analiz yolu CvTextStore.load ile okur.
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "cv_contents")
+public class CvContent {
+
+    // cvs.id ile aynı
+    @Id
+    @Column(name = "cv_id")
+    private UUID cvId;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] data;
+
+    // sıkıştırılmamış UTF-8 uzunluğu (inflate buffer'ı tek seferde ayrılır)
+    @Column(name = "raw_bytes", nullable = false)
+    private int rawBytes;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) createdAt = Instant.now();
+    }
+}
@@ -0,0 +1,7 @@
+package com.ghosting.analyzer.cv;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface CvContentRepository extends JpaRepository<CvContent, UUID> {}
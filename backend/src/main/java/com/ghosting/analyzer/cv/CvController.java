@@ -5,6 +5,7 @@ import com.ghosting.analyzer.cv.dto.CvResponse;
 import com.ghosting.analyzer.security.JwtService;
 import com.ghosting.analyzer.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -21,15 +22,29 @@ public class CvController {
     private final CvRepository cvRepository;
     private final UserRepository userRepository;
     private final TextExtractor textExtractor;
+    private final ExtractionCache extractionCache;
+    private final CvTextStore cvTextStore;
+    private final CvUploadService cvUploadService;
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public CvResponse upload(@RequestPart("file") MultipartFile file, Authentication auth) {
         var jwtUser = (JwtService.JwtUser) auth.getPrincipal();
         UUID userId = UUID.fromString(jwtUser.userId());
 
+        var upload = textExtractor.read(file);
+
+        // aynı kullanıcı aynı dosyayı tekrar yüklediyse mevcut CV'ye bağla
+        var existing = cvRepository.findByUser_IdAndContentSha256(userId, upload.sha256());
+        if (existing.isPresent()) {
+            var cv = existing.get();
+            // eski bir hatadan metinsiz kalmış CV bu yüklemeyle onarılır (insert on conflict do nothing)
+            if (!cvTextStore.exists(cv.getId())) cvTextStore.save(cv.getId(), extractionCache.textOf(upload));
+            return new CvResponse(cv.getId(), cv.getFilename(), cv.getCreatedAt());
+        }
+
         var user = userRepository.findById(userId).orElseThrow();
 
-        String text = textExtractor.extract(file);
+        String text = extractionCache.textOf(upload);
         if (text.length() < 50) {
             throw new IllegalArgumentException("Extracted text too short. Try another CV file.");
         }
@@ -37,10 +52,17 @@ public class CvController {
         var cv = Cv.builder()
                 .user(user)
                 .filename(file.getOriginalFilename() == null ? "cv" : file.getOriginalFilename())
-                .rawText(text)
+                .contentSha256(upload.sha256())
+                .tokenIndex(CvTokenIndex.build(text).encode())
                 .build();
 
-        cv = cvRepository.save(cv);
+        try {
+            cv = cvUploadService.create(cv, text);
+        } catch (DataIntegrityViolationException e) {
+            // eşzamanlı aynı yükleme: unique (user_id, content_sha256) kazananı döndür
+            var winner = cvRepository.findByUser_IdAndContentSha256(userId, upload.sha256()).orElseThrow(() -> e);
+            return new CvResponse(winner.getId(), winner.getFilename(), winner.getCreatedAt());
+        }
 
         return new CvResponse(cv.getId(), cv.getFilename(), cv.getCreatedAt());
     }
@@ -50,9 +72,6 @@ public class CvController {
         var jwtUser = (JwtService.JwtUser) auth.getPrincipal();
         UUID userId = UUID.fromString(jwtUser.userId());
 
-        return cvRepository.findAllByUser_IdOrderByCreatedAtDesc(userId)
-                .stream()
-                .map(c -> new CvResponse(c.getId(), c.getFilename(), c.getCreatedAt()))
-                .toList();
+        return cvRepository.findSummaries(userId);
     }
 }
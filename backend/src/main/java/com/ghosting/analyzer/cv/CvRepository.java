@@ -1,10 +1,25 @@
 package com.ghosting.analyzer.cv;
 
+import com.ghosting.analyzer.cv.dto.CvResponse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface CvRepository extends JpaRepository<Cv, UUID> {
-    List<Cv> findAllByUser_IdOrderByCreatedAtDesc(UUID userId);
+    // Liste: sadece id / dosya adı / tarih; token_index (CV başına KB'larca) hiç okunmaz
+    @Query("""
+            select new com.ghosting.analyzer.cv.dto.CvResponse(c.id, c.filename, c.createdAt)
+            from Cv c
+            where c.user.id = :userId
+            order by c.createdAt desc
+            """)
+    List<CvResponse> findSummaries(@Param("userId") UUID userId);
+
+    Optional<Cv> findByIdAndUser_Id(UUID id, UUID userId);
+    Optional<Cv> findByUser_IdAndContentSha256(UUID userId, String contentSha256);
+    Optional<Cv> findFirstByContentSha256(String contentSha256);
 }
@@ -0,0 +1,76 @@
+package com.ghosting.analyzer.cv;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// cvs.raw_text -> cv_contents taşıması (online).
+// Uygulama ayağa kalkınca arka plan thread'i küçük batch'ler halinde, her biri kendi kısa transaction'ında
+// ve aralarında bekleyerek taşır; tablo kilidi yok, sadece işlenen satırlar kısa süre kilitlenir.
+@Component
+public class CvTextMigration {
+
+    private final CvTextStore textStore;
+    private final JdbcTemplate jdbc;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long pauseMs;
+
+    public CvTextMigration(
+            CvTextStore textStore,
+            JdbcTemplate jdbc,
+            @Value("${app.cv.text.migration.enabled:true}") boolean enabled,
+            @Value("${app.cv.text.migration.batchSize:200}") int batchSize,
+            @Value("${app.cv.text.migration.pauseMs:100}") long pauseMs
+    ) {
+        this.textStore = textStore;
+        this.jdbc = jdbc;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+    }
+
+    // Cv entity artık raw_text yazmıyor; eski şemadaki NOT NULL yeni upload'ları kırmasın.
+    // Sadece metadata değişikliği (tablo yeniden yazılmaz), server istek almadan önce bir kez.
+    @PostConstruct
+    void relaxLegacyColumn() {
+        if (!textStore.hasLegacyColumn()) return;
+
+        String nullable = jdbc.queryForObject(
+                "select is_nullable from information_schema.columns where table_name = 'cvs' and column_name = 'raw_text'",
+                String.class);
+        if ("NO".equals(nullable)) {
+            jdbc.execute("alter table cvs alter column raw_text drop not null");
+            System.out.println("[CV] cvs.raw_text is now nullable");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || !textStore.hasLegacyColumn()) return;
+
+        Thread t = new Thread(this::run, "cv-text-migration");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void run() {
+        int total = 0;
+        try {
+            while (true) {
+                int n = textStore.migrateLegacyBatch(batchSize);
+                total += n;
+                if (n < batchSize) break;
+                Thread.sleep(pauseMs);
+            }
+            if (total > 0) System.out.println("[CV] Migrated " + total + " CV texts to cv_contents");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.out.println("[CV] Text migration stopped after " + total + " rows: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.ghosting.analyzer.cv;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// CV ham metninin tek okuma/yazma noktası: cv_contents tablosu, deflate ile sıkıştırılmış.
+// Eski kayıtlarda metin hâlâ cvs.raw_text'te olabilir; CvTextMigration arka planda taşır,
+// taşınmamış bir CV analiz edilirse load() o satırı anında taşır.
+@Service
+public class CvTextStore {
+
+    private static final String INSERT = """
+            insert into cv_contents (cv_id, data, raw_bytes, created_at)
+            values (?, ?, ?, ?)
+            on conflict (cv_id) do nothing
+            """;
+
+    private final CvContentRepository repository;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+
+    private final DistributionSummary storedBytes;
+    private final DistributionSummary compressionRatio;
+    private final Timer decompressTimer;
+
+    private volatile Boolean legacyColumn;
+
+    public CvTextStore(CvContentRepository repository, JdbcTemplate jdbc, TransactionTemplate tx, MeterRegistry registry) {
+        this.repository = repository;
+        this.jdbc = jdbc;
+        this.tx = tx;
+
+        this.storedBytes = DistributionSummary.builder("cv.text.stored_bytes")
+                .baseUnit("bytes")
+                .register(registry);
+        this.compressionRatio = DistributionSummary.builder("cv.text.compression_ratio")
+                .description("raw / stored")
+                .register(registry);
+        this.decompressTimer = Timer.builder("cv.text.decompress")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+
+    // id atanmış entity'de repository.save önce select (merge) yapar; doğrudan insert
+    public void save(UUID cvId, String text) {
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        byte[] data = deflate(raw);
+        jdbc.update(INSERT, cvId, data, raw.length, Timestamp.from(Instant.now()));
+    }
+
+    // metin var mı (cv_contents ya da henüz taşınmamış cvs.raw_text); load() gibi açmaz
+    public boolean exists(UUID cvId) {
+        if (repository.existsById(cvId)) return true;
+        return hasLegacyColumn() && Boolean.TRUE.equals(jdbc.queryForObject(
+                "select exists (select 1 from cvs where id = ? and raw_text is not null)", Boolean.class, cvId));
+    }
+
+    // null -> bu CV için metin yok
+    public String load(UUID cvId) {
+        var content = repository.findById(cvId);
+        if (content.isPresent()) {
+            return decompressTimer.record(() -> inflate(content.get().getData(), content.get().getRawBytes()));
+        }
+        if (!hasLegacyColumn()) return null;
+
+        // henüz taşınmamış eski kayıt
+        String legacy = tx.execute(s -> {
+            List<String> rows = jdbc.queryForList(
+                    "select raw_text from cvs where id = ? and raw_text is not null for update", String.class, cvId);
+            if (rows.isEmpty()) return null;
+            moveLegacy(cvId, rows.get(0));
+            return rows.get(0);
+        });
+        if (legacy != null) return legacy;
+
+        // migration bu arada taşımış olabilir
+        return repository.findById(cvId)
+                .map(c -> decompressTimer.record(() -> inflate(c.getData(), c.getRawBytes())))
+                .orElse(null);
+    }
+
+    // Tek transaction'da en fazla batchSize eski satır taşınır; kilitli satırlar atlanır (skip locked),
+    // böylece tablo kilidi alınmaz ve aynı anda çalışan analizler beklemez. Dönüş: taşınan satır sayısı
+    public int migrateLegacyBatch(int batchSize) {
+        if (!hasLegacyColumn()) return 0;
+
+        Integer moved = tx.execute(s -> {
+            List<Object[]> rows = jdbc.query(
+                    "select id, raw_text from cvs where raw_text is not null limit ? for update skip locked",
+                    (rs, i) -> new Object[]{rs.getObject(1, UUID.class), rs.getString(2)},
+                    batchSize);
+            for (Object[] r : rows) moveLegacy((UUID) r[0], (String) r[1]);
+            return rows.size();
+        });
+        return moved == null ? 0 : moved;
+    }
+
+    boolean hasLegacyColumn() {
+        Boolean v = legacyColumn;
+        if (v == null) {
+            Integer n = jdbc.queryForObject(
+                    "select count(*) from information_schema.columns where table_name = 'cvs' and column_name = 'raw_text'",
+                    Integer.class);
+            legacyColumn = v = n != null && n > 0;
+        }
+        return v;
+    }
+
+    private void moveLegacy(UUID cvId, String text) {
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        byte[] data = deflate(raw);
+        jdbc.update(INSERT, cvId, data, raw.length, Timestamp.from(Instant.now()));
+        jdbc.update("update cvs set raw_text = null where id = ?", cvId);
+    }
+
+    private byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 3));
+            byte[] buf = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buf);
+                out.write(buf, 0, n);
+            }
+            byte[] data = out.toByteArray();
+
+            storedBytes.record(data.length);
+            compressionRatio.record(data.length == 0 ? 1.0 : raw.length / (double) data.length);
+            return data;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String inflate(byte[] data, int rawBytes) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] raw = new byte[rawBytes];
+            int n = 0;
+            while (n < rawBytes && !inflater.finished()) {
+                int r = inflater.inflate(raw, n, rawBytes - n);
+                if (r == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                n += r;
+            }
+            return new String(n == rawBytes ? raw : Arrays.copyOf(raw, n), StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt CV content", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.ghosting.analyzer.cv;
+
+import com.ghosting.analyzer.text.SkillDictionary;
+import com.ghosting.analyzer.text.TokenChars;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+// CV metninin normalize edilmiş, sıralı ve tekil token sözlüğü.
+// Upload sırasında bir kez kurulur, cvs.token_index kolonunda boşlukla ayrılmış olarak saklanır;
+// analiz sırasında keyword kontrolü binary search ile yapılır (tüm metni taramak yerine).
+// CV'de bulunan kanonik skill'ler de "@id" terimi olarak, sözlük sürümü "@@version" olarak saklanır.
+public final class CvTokenIndex {
+
+    private final String[] terms; // sorted, unique
+
+    private CvTokenIndex(String[] terms) {
+        this.terms = terms;
+    }
+
+    // Engine'in JD tokenizasyonuyla aynı kurallar: [a-z0-9+#.] dışı her şey ayraç (TokenChars ile katlanır)
+    public static CvTokenIndex build(String text) {
+        var set = new TreeSet<String>();
+        if (text != null) {
+            var sb = new StringBuilder(32);
+            int n = text.length();
+            for (int i = 0; i <= n; i++) {
+                char c = i < n ? TokenChars.fold(text.charAt(i)) : 0;
+                if (c != 0) {
+                    sb.append(c);
+                    continue;
+                }
+                if (sb.length() > 0) {
+                    String t = sb.toString();
+                    set.add(t);
+
+                    // cümle sonu noktası vb. ("java." -> "java")
+                    String stripped = stripDots(t);
+                    if (!stripped.isEmpty()) set.add(stripped);
+                    sb.setLength(0);
+                }
+            }
+        }
+
+        SkillDictionary skills = SkillDictionary.bundled();
+        set.add(skills.versionTerm());
+        for (int s : skills.scan(text).ranked()) set.add(skills.indexTerm(s));
+
+        return new CvTokenIndex(set.toArray(new String[0]));
+    }
+
+    public static CvTokenIndex decode(String encoded) {
+        if (encoded == null || encoded.isEmpty()) return new CvTokenIndex(new String[0]);
+        return new CvTokenIndex(encoded.split(" "));
+    }
+
+    public String encode() {
+        return String.join(" ", terms);
+    }
+
+    public boolean contains(String term) {
+        return Arrays.binarySearch(terms, term) >= 0;
+    }
+
+    // taxonomy değiştiyse (veya index skill'lerden önce kurulduysa) false -> yeniden kurulmalı
+    public boolean hasSkills(SkillDictionary skills) {
+        return contains(skills.versionTerm());
+    }
+
+    public boolean containsSkill(SkillDictionary skills, int skill) {
+        return contains(skills.indexTerm(skill));
+    }
+
+    public int size() {
+        return terms.length;
+    }
+
+    private static String stripDots(String t) {
+        int a = 0;
+        int b = t.length();
+        while (a < b && t.charAt(a) == '.') a++;
+        while (b > a && t.charAt(b - 1) == '.') b--;
+        return t.substring(a, b);
+    }
+}
@@ -0,0 +1,23 @@
+package com.ghosting.analyzer.cv;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+// Yeni CV satırı ve metni (cv_contents) aynı transaction'da yazılır: ikisi birlikte görünür olur.
+// Okuyan taraf (analiz, sha-256 dedupe) metni olmayan bir CV görmez; metin insert'i patlarsa CV de geri alınır.
+@Service
+@RequiredArgsConstructor
+public class CvUploadService {
+
+    private final CvRepository cvRepository;
+    private final CvTextStore cvTextStore;
+
+    // unique (user_id, content_sha256) ihlali DataIntegrityViolationException olarak dışarı çıkar (transaction geri alınmış)
+    @Transactional
+    public Cv create(Cv cv, String text) {
+        Cv saved = cvRepository.saveAndFlush(cv); // id + unique ihlali metin yazılmadan önce
+        cvTextStore.save(saved.getId(), text);
+        return saved;
+    }
+}
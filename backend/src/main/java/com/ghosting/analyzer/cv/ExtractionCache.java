@@ -0,0 +1,118 @@
+package com.ghosting.analyzer.cv;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Aynı dosya (sha-256) tekrar yüklenince Tika parse'ı atlanır.
+// Sıra: L1 (son hash'ler, LRU) -> cvs.content_sha256 ile daha önce yüklenmiş CV'nin metni -> Tika.
+// L1 hem giriş sayısı hem toplam karakterle sınırlı (200 x 200k karakterlik metin ~80 MB ederdi).
+// Atlanan parse süresi, gerçek parse'ların ortalamasıyla tahmin edilip cv.extract.parse_saved sayacına eklenir.
+@Component
+public class ExtractionCache {
+
+    private final TextExtractor textExtractor;
+    private final CvRepository cvRepository;
+    private final CvTextStore cvTextStore;
+    private final int maxEntries;
+    private final long maxChars;
+
+    private final LinkedHashMap<String, String> recent = new LinkedHashMap<>(64, 0.75f, true);
+    private long chars; // recent'teki metinlerin toplam uzunluğu
+
+    private final Counter memoryHits;
+    private final Counter dbHits;
+    private final Counter misses;
+    private final Counter parseSavedMs;
+    private final Timer parseTimer;
+
+    public ExtractionCache(
+            TextExtractor textExtractor,
+            CvRepository cvRepository,
+            CvTextStore cvTextStore,
+            @Value("${app.cv.extractCache.maxEntries:200}") int maxEntries,
+            @Value("${app.cv.extractCache.maxChars:4000000}") long maxChars,
+            MeterRegistry registry
+    ) {
+        this.textExtractor = textExtractor;
+        this.cvRepository = cvRepository;
+        this.cvTextStore = cvTextStore;
+        this.maxEntries = maxEntries;
+        this.maxChars = maxChars;
+
+        this.memoryHits = Counter.builder("cv.extract.requests").tag("result", "hit").tag("level", "memory").register(registry);
+        this.dbHits = Counter.builder("cv.extract.requests").tag("result", "hit").tag("level", "db").register(registry);
+        this.misses = Counter.builder("cv.extract.requests").tag("result", "miss").register(registry);
+        this.parseSavedMs = Counter.builder("cv.extract.parse_saved")
+                .baseUnit("milliseconds")
+                .description("tahmini atlanan Tika parse süresi")
+                .register(registry);
+        this.parseTimer = Timer.builder("cv.extract.parse").register(registry);
+
+        Gauge.builder("cv.extract.cache.size", this, ExtractionCache::size).register(registry);
+        Gauge.builder("cv.extract.cache.chars", this, ExtractionCache::chars).register(registry);
+    }
+
+    public String textOf(TextExtractor.Upload upload) {
+        String sha = upload.sha256();
+
+        String text = getRecent(sha);
+        if (text != null) {
+            memoryHits.increment();
+            saved();
+            return text;
+        }
+
+        var known = cvRepository.findFirstByContentSha256(sha);
+        if (known.isPresent()) {
+            text = cvTextStore.load(known.get().getId());
+            if (text != null) {
+                dbHits.increment();
+                saved();
+                putRecent(sha, text);
+                return text;
+            }
+        }
+
+        misses.increment();
+        text = parseTimer.record(() -> textExtractor.extract(upload.bytes()));
+        putRecent(sha, text);
+        return text;
+    }
+
+    private void saved() {
+        if (parseTimer.count() > 0) parseSavedMs.increment(parseTimer.mean(TimeUnit.MILLISECONDS));
+    }
+
+    private synchronized String getRecent(String sha) {
+        return recent.get(sha);
+    }
+
+    // tek başına bütçeyi aşan metin cache'lenmez; sonra en eski girişler sınırlar sağlanana kadar çıkarılır
+    private synchronized void putRecent(String sha, String text) {
+        if (text.length() > maxChars) return;
+        String old = recent.put(sha, text);
+        chars += text.length() - (old == null ? 0 : old.length());
+
+        Iterator<String> eldest = recent.values().iterator();
+        while (eldest.hasNext() && (recent.size() > maxEntries || chars > maxChars)) {
+            chars -= eldest.next().length();
+            eldest.remove();
+        }
+    }
+
+    synchronized int size() {
+        return recent.size();
+    }
+
+    synchronized long chars() {
+        return chars;
+    }
+}
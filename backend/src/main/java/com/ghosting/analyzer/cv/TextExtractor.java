@@ -1,22 +1,300 @@
 package com.ghosting.analyzer.cv;
 
-import org.apache.tika.Tika;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.tika.exception.WriteLimitReachedException;
+import org.apache.tika.extractor.EmbeddedDocumentExtractor;
+import org.apache.tika.extractor.ParsingEmbeddedDocumentExtractor;
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.sax.BodyContentHandler;
+import org.apache.tika.sax.ContentHandlerDecorator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
 
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Tika parse'ı request thread'inde değil, ayrı ve sınırlı bir havuzda çalışır.
+// Her iş için: süre sınırı, karakter sınırı, sayfa sınırı (PDF), gömülü doküman sınırı.
+// Sınır aşımı -> 413 / 422, havuz dolu -> 429; diğer istekler etkilenmez.
+// Interrupt'ı dinlemeyen parser'lar timeout + cancel sonrası da worker'ı tutar: böyle "takılı" worker'lar
+// loglanır, cv.extract.stuck_workers gauge'unda görünür ve her biri için havuza bir thread eklenir
+// (en fazla maxStuckWorkers); takılı thread sonunda çıkınca havuz eski boyutuna döner.
 @Service
 public class TextExtractor {
 
-    private final Tika tika = new Tika();
+    private final Parser parser = new AutoDetectParser();
+    private final ThreadPoolExecutor executor;
+
+    private final long timeoutMs;
+    private final long maxUploadBytes;
+    private final int maxChars;
+    private final int maxPages;
+    private final int maxEmbedded;
+    private final int maxStuckWorkers;
+    private final MeterRegistry registry;
+
+    private final AtomicInteger stuckWorkers = new AtomicInteger();
+    private int replacedWorkers; // executor üzerinde senkronize
+
+    public TextExtractor(
+            @Value("${app.cv.extract.workers:2}") int workers,
+            @Value("${app.cv.extract.queueCapacity:8}") int queueCapacity,
+            @Value("${app.cv.extract.timeoutMs:20000}") long timeoutMs,
+            @Value("${app.cv.extract.maxUploadBytes:5242880}") long maxUploadBytes,
+            @Value("${app.cv.extract.maxChars:200000}") int maxChars,
+            @Value("${app.cv.extract.maxPages:30}") int maxPages,
+            @Value("${app.cv.extract.maxEmbedded:10}") int maxEmbedded,
+            @Value("${app.cv.extract.maxStuckWorkers:4}") int maxStuckWorkers,
+            MeterRegistry registry
+    ) {
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                workers, workers,
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "tika-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.timeoutMs = timeoutMs;
+        this.maxUploadBytes = maxUploadBytes;
+        this.maxChars = maxChars;
+        this.maxPages = maxPages;
+        this.maxEmbedded = maxEmbedded;
+        this.maxStuckWorkers = maxStuckWorkers;
+        this.registry = registry;
+
+        Gauge.builder("cv.extract.stuck_workers", stuckWorkers, AtomicInteger::get)
+                .description("Timeout + cancel sonrası hâlâ çalışan Tika worker'ları")
+                .register(registry);
+    }
+
+    // yüklenen dosya tek okumada hem belleğe alınır hem hash'lenir
+    public record Upload(byte[] bytes, String sha256) {}
 
-    public String extract(MultipartFile file) {
+    public Upload read(MultipartFile file) {
+        if (file.getSize() > maxUploadBytes) {
+            throw reject("size", HttpStatus.PAYLOAD_TOO_LARGE, "CV file is larger than " + maxUploadBytes + " bytes");
+        }
         try {
-            String text = tika.parseToString(file.getInputStream());
-            if (text == null) return "";
-            text = text.replace("\u0000", "").trim();
-            return text;
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] bytes;
+            try (InputStream in = new DigestInputStream(file.getInputStream(), md)) {
+                bytes = in.readAllBytes();
+            }
+            return new Upload(bytes, HexFormat.of().formatHex(md.digest()));
         } catch (Exception e) {
-            throw new RuntimeException("CV text extraction failed", e);
+            throw new RuntimeException("CV upload could not be read", e);
+        }
+    }
+
+    public String extract(byte[] bytes) {
+        ParseJob parse = new ParseJob(bytes);
+        Future<String> job;
+        try {
+            job = executor.submit(parse);
+        } catch (RejectedExecutionException e) {
+            throw reject("busy", HttpStatus.TOO_MANY_REQUESTS, "CV extraction is busy, try again later");
+        }
+
+        try {
+            return job.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            job.cancel(true);
+            parse.abandon();
+            throw reject("timeout", HttpStatus.UNPROCESSABLE_ENTITY, "CV extraction timed out");
+        } catch (InterruptedException e) {
+            job.cancel(true);
+            parse.abandon();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("CV text extraction interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ResponseStatusException rse) throw rse;
+            System.out.println("[CV] Extraction failed: " + e.getCause());
+            throw reject("failed", HttpStatus.UNPROCESSABLE_ENTITY, "CV text extraction failed");
+        }
+    }
+
+    // Worker thread'ini ve bırakılıp bırakılmadığını izler. cancel(true) interrupt gönderir; parser onu
+    // dinlemezse worker çalışmaya devam eder ve takılı sayılır
+    private final class ParseJob implements Callable<String> {
+        private final byte[] bytes;
+        private Thread worker;
+        private boolean done;
+        private boolean abandoned;
+        private boolean replaced;
+        private long abandonedAt;
+
+        ParseJob(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public String call() throws Exception {
+            synchronized (this) {
+                worker = Thread.currentThread();
+            }
+            try {
+                return parse(bytes);
+            } finally {
+                exited();
+            }
+        }
+
+        // çağıran vazgeçti; iş başlamamış ya da bitmişse takılı worker yok
+        // kilit sırası: job -> executor (exited() havuzu job kilidi dışında küçültür)
+        void abandon() {
+            String name;
+            int stuck;
+            boolean grew;
+            synchronized (this) {
+                if (worker == null || done) return;
+                abandoned = true;
+                abandonedAt = System.nanoTime();
+                name = worker.getName();
+                stuck = stuckWorkers.incrementAndGet();
+                grew = replaced = growPool();
+            }
+            System.out.println("[CV] Tika worker " + name + " still running after timeout (stuck=" + stuck
+                    + (grew ? ", replaced" : ", not replaced: maxStuckWorkers reached") + ")");
+        }
+
+        private void exited() {
+            boolean shrink;
+            long abandonedAtNanos;
+            synchronized (this) {
+                done = true;
+                if (!abandoned) return;
+                shrink = replaced;
+                abandonedAtNanos = abandonedAt;
+            }
+            stuckWorkers.decrementAndGet();
+            if (shrink) shrinkPool();
+            System.out.println("[CV] Tika worker " + Thread.currentThread().getName() + " finished "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - abandonedAtNanos) + " ms after timeout");
+        }
+    }
+
+    // takılı worker'ın yerine bir thread; önce max sonra core (core > max olamaz)
+    private boolean growPool() {
+        synchronized (executor) {
+            if (replacedWorkers >= maxStuckWorkers || executor.isShutdown()) return false;
+            replacedWorkers++;
+            executor.setMaximumPoolSize(executor.getMaximumPoolSize() + 1);
+            executor.setCorePoolSize(executor.getCorePoolSize() + 1);
+            return true;
         }
     }
+
+    private void shrinkPool() {
+        synchronized (executor) {
+            replacedWorkers--;
+            executor.setCorePoolSize(executor.getCorePoolSize() - 1);
+            executor.setMaximumPoolSize(executor.getMaximumPoolSize() - 1);
+        }
+    }
+
+    private String parse(byte[] bytes) throws Exception {
+        BodyContentHandler body = new BodyContentHandler(maxChars);
+        PageLimitHandler handler = new PageLimitHandler(body, maxPages);
+
+        ParseContext context = new ParseContext();
+        context.set(Parser.class, parser);
+        EmbeddedLimitExtractor embedded = new EmbeddedLimitExtractor(context, maxEmbedded);
+        context.set(EmbeddedDocumentExtractor.class, embedded);
+
+        try (InputStream in = TikaInputStream.get(bytes)) {
+            parser.parse(in, handler, new Metadata(), context);
+        } catch (Exception e) {
+            if (WriteLimitReachedException.isWriteLimitReached(e)) {
+                throw reject("chars", HttpStatus.PAYLOAD_TOO_LARGE, "CV text is longer than " + maxChars + " characters");
+            }
+            if (handler.exceeded) {
+                throw reject("pages", HttpStatus.PAYLOAD_TOO_LARGE, "CV has more than " + maxPages + " pages");
+            }
+            throw e;
+        }
+        if (embedded.exceeded) {
+            throw reject("embedded", HttpStatus.UNPROCESSABLE_ENTITY, "CV has more than " + maxEmbedded + " embedded documents");
+        }
+
+        return body.toString().replace("\u0000", "").trim();
+    }
+
+    private ResponseStatusException reject(String reason, HttpStatus status, String message) {
+        registry.counter("cv.extract.rejected", "reason", reason).increment();
+        return new ResponseStatusException(status, message);
+    }
+
+    // PDF parser her sayfa için <div class="page"> üretir; sınırı aşınca parse kesilir
+    private static final class PageLimitHandler extends ContentHandlerDecorator {
+        private final int maxPages;
+        private int pages;
+        private boolean exceeded;
+
+        PageLimitHandler(BodyContentHandler body, int maxPages) {
+            super(body);
+            this.maxPages = maxPages;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+            if ("div".equals(localName) && "page".equals(atts.getValue("class")) && ++pages > maxPages) {
+                exceeded = true;
+                throw new SAXException("Page limit reached");
+            }
+            super.startElement(uri, localName, qName, atts);
+        }
+    }
+
+    // sınırdan sonraki gömülü dokümanlar parse edilmez, iş sonunda reddedilir
+    private static final class EmbeddedLimitExtractor extends ParsingEmbeddedDocumentExtractor {
+        private final int maxEmbedded;
+        private int count;
+        private boolean exceeded;
+
+        EmbeddedLimitExtractor(ParseContext context, int maxEmbedded) {
+            super(context);
+            this.maxEmbedded = maxEmbedded;
+        }
+
+        @Override
+        public boolean shouldParseEmbedded(Metadata metadata) {
+            if (++count > maxEmbedded) {
+                exceeded = true;
+                return false;
+            }
+            return super.shouldParseEmbedded(metadata);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
 }
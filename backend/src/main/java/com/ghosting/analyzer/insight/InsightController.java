@@ -0,0 +1,80 @@
+package com.ghosting.analyzer.insight;
+
+import com.ghosting.analyzer.insight.dto.InsightResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+// Sadece rollup tablolarından okur (InsightRollups); insight_events taranmaz.
+@RestController
+@RequestMapping("/api/insights")
+@RequiredArgsConstructor
+public class InsightController {
+
+    private static final int MAX_DAYS = 366;
+    private static final int MAX_SKILLS = 50;
+
+    private final InsightRollups rollups;
+
+    @GetMapping
+    public InsightResponse insights(
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int skills,
+            Authentication auth
+    ) {
+        if (auth == null || auth.getPrincipal() == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
+        }
+
+        LocalDate end = to == null ? LocalDate.now(ZoneOffset.UTC) : to;
+        LocalDate start = from == null ? end.minusDays(29) : from;
+        if (start.isAfter(end) || ChronoUnit.DAYS.between(start, end) >= MAX_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Date range must be 1-" + MAX_DAYS + " days");
+        }
+
+        String c = blankToNull(country);
+        String r = blankToNull(role);
+
+        long events = 0, matchSum = 0, atsSum = 0;
+        List<InsightResponse.Day> daily = new ArrayList<>();
+        for (var d : rollups.daily(c, r, start, end)) {
+            events += d.events();
+            matchSum += d.matchSum();
+            atsSum += d.atsSum();
+            daily.add(new InsightResponse.Day(d.day(), d.events(),
+                    d.matchSum() / (double) d.events(), d.atsSum() / (double) d.events()));
+        }
+
+        var histograms = rollups.histograms(c, r, start, end);
+        var topSkills = rollups.topSkills(c, r, start, end, Math.max(1, Math.min(skills, MAX_SKILLS))).stream()
+                .map(s -> new InsightResponse.Skill(s.skill(), s.count()))
+                .toList();
+
+        return new InsightResponse(
+                c, r, start, end,
+                events,
+                events == 0 ? null : matchSum / (double) events,
+                events == 0 ? null : atsSum / (double) events,
+                histograms.get("match"),
+                histograms.get("ats"),
+                daily,
+                topSkills
+        );
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s.trim();
+    }
+}
@@ -0,0 +1,152 @@
+package com.ghosting.analyzer.insight;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// insight_events için write-behind buffer.
+// offer() kilitsiz ve asla bloklamaz; kapasite doluysa olay düşürülür (insight.buffer.dropped).
+// Tek flush thread'i batchSize dolunca ya da flushIntervalMs'de bir saveAll ile yazar (hibernate.jdbc.batch_size)
+// ve aynı transaction'da InsightRollups özetlerini günceller.
+// Graceful shutdown'da kuyrukta kalanlar yazılır.
+// insight_events'in default partition'ı yok (V5): ay değişince önce içinde bulunulan ayın partition'ı hazırlanır.
+@Component
+public class InsightEventBuffer {
+
+    private final InsightEventRepository repository;
+    private final InsightRollups rollups;
+    private final InsightPartitionMaintenance partitions;
+    private final TransactionTemplate tx;
+    private final int capacity;
+    private final int batchSize;
+
+    private final Queue<InsightEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+    private YearMonth readyMonth; // sadece flush thread'i
+
+    private final Counter dropped;
+    private final Counter flushed;
+    private final Counter flushFailures;
+    private final Timer flushTimer;
+
+    public InsightEventBuffer(
+            InsightEventRepository repository,
+            InsightRollups rollups,
+            InsightPartitionMaintenance partitions,
+            TransactionTemplate tx,
+            @Value("${app.insights.buffer.capacity:10000}") int capacity,
+            @Value("${app.insights.buffer.batchSize:200}") int batchSize,
+            @Value("${app.insights.buffer.flushIntervalMs:2000}") long flushIntervalMs,
+            MeterRegistry registry
+    ) {
+        this.repository = repository;
+        this.rollups = rollups;
+        this.partitions = partitions;
+        this.tx = tx;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "insight-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flushAll, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("insight.buffer.depth", depth, AtomicInteger::get).register(registry);
+        this.dropped = Counter.builder("insight.buffer.dropped").register(registry);
+        this.flushed = Counter.builder("insight.buffer.flushed").register(registry);
+        this.flushFailures = Counter.builder("insight.buffer.flush_failures").register(registry);
+        this.flushTimer = Timer.builder("insight.buffer.flush").register(registry);
+    }
+
+    // false -> buffer dolu, olay düşürüldü
+    public boolean offer(InsightEvent event) {
+        if (depth.incrementAndGet() > capacity) {
+            depth.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        queue.offer(event);
+
+        // boyut tetiklemesi: aynı anda en fazla bir bekleyen flush
+        if (depth.get() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            try {
+                flusher.execute(() -> {
+                    flushScheduled.set(false);
+                    flushAll();
+                });
+            } catch (RuntimeException e) {
+                flushScheduled.set(false); // shutdown sırasında; @PreDestroy drain eder
+            }
+        }
+        return true;
+    }
+
+    public int depth() {
+        return depth.get();
+    }
+
+    // sadece flush thread'inden (ve shutdown'da) çağrılır
+    private void flushAll() {
+        if (!queue.isEmpty()) ensureCurrentPartition();
+        while (!queue.isEmpty()) {
+            List<InsightEvent> batch = new ArrayList<>(batchSize);
+            InsightEvent e;
+            while (batch.size() < batchSize && (e = queue.poll()) != null) batch.add(e);
+            if (batch.isEmpty()) return;
+            depth.addAndGet(-batch.size());
+
+            try {
+                // ham event'ler + rollup'lar aynı transaction'da
+                flushTimer.record(() -> tx.executeWithoutResult(t -> {
+                    repository.saveAll(batch);
+                    rollups.apply(batch);
+                }));
+                flushed.increment(batch.size());
+            } catch (Exception ex) {
+                // analitik veri: tekrar denenmez, API'yi etkilemez
+                flushFailures.increment();
+                dropped.increment(batch.size());
+                System.out.println("[INSIGHT] Flush failed, dropped " + batch.size() + " events: " + ex.getMessage());
+            }
+        }
+    }
+
+    // bakım kapalıysa ya da premake gecikmişse insert'ler partition bulamayıp düşmesin
+    private void ensureCurrentPartition() {
+        YearMonth month = YearMonth.now(ZoneOffset.UTC);
+        if (month.equals(readyMonth)) return;
+        try {
+            if (partitions.ensureMonth(month)) readyMonth = month;
+        } catch (Exception e) {
+            System.out.println("[INSIGHT] Partition check failed for " + month + ": " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flushAll();
+    }
+}
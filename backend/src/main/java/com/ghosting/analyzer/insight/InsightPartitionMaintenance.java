@@ -0,0 +1,320 @@
+package com.ghosting.analyzer.insight;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// insight_events aylık partition bakımı (şema: db/migration/V1, V3, V5).
+// intervalMinutes'da bir: önümüzdeki premakeMonths ayın partition'ı hazırlanır, kapanmış aylar
+// insight_monthly_* tablolarına özetlenir, retentionMonths'tan eski ve özetlenmiş partition'lar drop edilir.
+// Her adım kendi kısa transaction'ında ve advisory lock altında; birden fazla node'da aynı anda tek node çalışır.
+// Drop önce DETACH ... CONCURRENTLY ile ayırır: ebeveyne ACCESS EXCLUSIVE alınmaz, flush'lar beklemez.
+// insight_daily_skills: kapanmış günler skills.keepPerDay'e budanır (insight_skill_prunes, V7),
+// skills.retentionMonths'tan eski günler silinir.
+@Component
+public class InsightPartitionMaintenance {
+
+    private static final long LOCK_KEY = 7_318_201L; // pg_try_advisory_(xact_)lock anahtarı (uygulama genelinde tek)
+    private static final Pattern PARTITION = Pattern.compile("insight_events_p(\\d{4})(\\d{2})");
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final InsightRollups rollups;
+    private final boolean enabled;
+    private final int premakeMonths;
+    private final int retentionMonths;
+    private final long compactGraceHours;
+    private final long intervalMinutes;
+    private final int skillsKeepPerDay;
+    private final int skillsRetentionMonths;
+
+    private final Counter created;
+    private final Counter compacted;
+    private final Counter dropped;
+    private final Counter skillsPruned;
+    private final Timer runTimer;
+
+    private ScheduledExecutorService scheduler;
+
+    public InsightPartitionMaintenance(
+            JdbcTemplate jdbc,
+            TransactionTemplate tx,
+            InsightRollups rollups,
+            @Value("${app.insights.partitions.enabled:true}") boolean enabled,
+            @Value("${app.insights.partitions.premakeMonths:3}") int premakeMonths,
+            @Value("${app.insights.partitions.retentionMonths:12}") int retentionMonths,
+            @Value("${app.insights.partitions.compactGraceHours:24}") long compactGraceHours,
+            @Value("${app.insights.partitions.intervalMinutes:360}") long intervalMinutes,
+            @Value("${app.insights.skills.keepPerDay:50}") int skillsKeepPerDay,
+            @Value("${app.insights.skills.retentionMonths:12}") int skillsRetentionMonths,
+            MeterRegistry registry
+    ) {
+        this.jdbc = jdbc;
+        this.tx = tx;
+        this.rollups = rollups;
+        this.enabled = enabled;
+        this.premakeMonths = premakeMonths;
+        this.retentionMonths = retentionMonths;
+        this.compactGraceHours = compactGraceHours;
+        this.intervalMinutes = intervalMinutes;
+        this.skillsKeepPerDay = skillsKeepPerDay;
+        this.skillsRetentionMonths = skillsRetentionMonths;
+
+        this.created = Counter.builder("insight.partitions.created").register(registry);
+        this.compacted = Counter.builder("insight.partitions.compacted").register(registry);
+        this.dropped = Counter.builder("insight.partitions.dropped").register(registry);
+        this.skillsPruned = Counter.builder("insight.skills.pruned")
+                .description("Günlük top-K dışında kalıp silinen insight_daily_skills satırları")
+                .register(registry);
+        this.runTimer = Timer.builder("insight.partitions.maintenance").register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "insight-partitions");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                runTimer.record(() -> run(Instant.now()));
+            } catch (Exception e) {
+                System.out.println("[INSIGHT] Partition maintenance failed: " + e.getMessage());
+            }
+        }, 0, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) scheduler.shutdownNow();
+    }
+
+    void run(Instant now) {
+        YearMonth current = YearMonth.from(now.atOffset(ZoneOffset.UTC));
+
+        for (int i = 0; i <= premakeMonths; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (Boolean.TRUE.equals(locked(() -> ensurePartition(month)))) {
+                created.increment();
+                System.out.println("[INSIGHT] Created partition " + partitionName(month));
+            }
+        }
+
+        // ay bittikten sonra geç flush'lar için compactGraceHours beklenir
+        Instant compactBefore = now.minus(Duration.ofHours(compactGraceHours));
+        YearMonth keepFrom = current.minusMonths(retentionMonths);
+
+        for (YearMonth month : partitions()) {
+            if (!start(month.plusMonths(1)).toInstant().isAfter(compactBefore)
+                    && Boolean.TRUE.equals(locked(() -> compact(month)))) {
+                compacted.increment();
+                System.out.println("[INSIGHT] Compacted " + partitionName(month));
+            }
+
+            // retentionMonths <= 0 -> ham veri süresiz tutulur
+            if (retentionMonths > 0 && month.isBefore(keepFrom) && drop(month)) {
+                dropped.increment();
+                System.out.println("[INSIGHT] Dropped partition " + partitionName(month) + " (retention " + retentionMonths + " months)");
+            }
+        }
+
+        maintainSkills(now, compactBefore);
+    }
+
+    // kapanmış (grace dahil) ve henüz budanmamış günler sırayla; her gün kendi transaction'ında
+    private void maintainSkills(Instant now, Instant closedBefore) {
+        if (skillsRetentionMonths > 0) {
+            LocalDate keepFrom = YearMonth.from(now.atOffset(ZoneOffset.UTC)).minusMonths(skillsRetentionMonths).atDay(1);
+            Boolean expired = locked(() -> {
+                int n = rollups.expireSkills(keepFrom);
+                jdbc.update("delete from insight_skill_prunes where day < ?", Date.valueOf(keepFrom));
+                if (n > 0) System.out.println("[INSIGHT] Expired " + n + " daily skill rows before " + keepFrom);
+                return true;
+            });
+            if (expired == null) return; // bakım başka node'da
+        }
+        if (skillsKeepPerDay <= 0) return;
+
+        for (LocalDate day = nextSkillDayToPrune(); day != null
+                && !day.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC).isAfter(closedBefore); day = day.plusDays(1)) {
+            LocalDate d = day;
+            Boolean done = locked(() -> {
+                int n = rollups.pruneSkills(d, skillsKeepPerDay);
+                jdbc.update("insert into insight_skill_prunes (day, pruned, pruned_at) values (?, ?, now()) on conflict (day) do nothing",
+                        Date.valueOf(d), n);
+                skillsPruned.increment(n);
+                return true;
+            });
+            if (done == null) return;
+        }
+    }
+
+    // son budanan günün ertesi; hiç budanmamışsa tablodaki en eski gün (boşsa null)
+    private LocalDate nextSkillDayToPrune() {
+        Date last = jdbc.queryForObject("select max(day) from insight_skill_prunes", Date.class);
+        if (last != null) return last.toLocalDate().plusDays(1);
+        Date first = jdbc.queryForObject("select min(day) from insight_daily_skills", Date.class);
+        return first == null ? null : first.toLocalDate();
+    }
+
+    // InsightEventBuffer: içinde bulunulan ayın partition'ı (bakım kapalı olsa da). false -> lock başka node'da
+    public boolean ensureMonth(YearMonth month) {
+        Boolean ok = locked(() -> {
+            if (ensurePartition(month)) {
+                created.increment();
+                System.out.println("[INSIGHT] Created partition " + partitionName(month));
+            }
+            return true;
+        });
+        return ok != null;
+    }
+
+    private boolean ensurePartition(YearMonth month) {
+        return Boolean.TRUE.equals(jdbc.queryForObject(
+                "select insight_events_ensure_partition(?)", Boolean.class, Date.valueOf(month.atDay(1))));
+    }
+
+    // idempotent: özetlenmiş ay tekrar özetlenmez
+    private boolean compact(YearMonth month) {
+        if (isCompacted(month)) return false;
+
+        Date m = Date.valueOf(month.atDay(1));
+        OffsetDateTime from = start(month);
+        OffsetDateTime to = start(month.plusMonths(1));
+
+        jdbc.update("""
+                insert into insight_monthly_summaries (month, country, role, seniority, events, match_sum, ats_sum)
+                select ?, country, coalesce(role_guess, ''), coalesce(seniority_guess, ''),
+                       count(*), sum(match_score), sum(ats_readability_score)
+                from insight_events
+                where created_at >= ? and created_at < ?
+                group by country, coalesce(role_guess, ''), coalesce(seniority_guess, '')
+                """, m, from, to);
+
+        jdbc.update("""
+                insert into insight_monthly_skills (month, country, role, skill, events)
+                select ?, e.country, coalesce(e.role_guess, ''), lower(trim(s.skill)), count(*)
+                from insight_events e, unnest(e.missing_skills) as s(skill)
+                where e.created_at >= ? and e.created_at < ? and trim(s.skill) <> ''
+                group by e.country, coalesce(e.role_guess, ''), lower(trim(s.skill))
+                """, m, from, to);
+
+        Long events = jdbc.queryForObject(
+                "select coalesce(sum(events), 0) from insight_monthly_summaries where month = ?", Long.class, m);
+        jdbc.update("insert into insight_compactions (month, events, compacted_at) values (?, ?, now())", m, events);
+        return true;
+    }
+
+    // sadece özetlenmiş ay silinir; özetlenmemişse bir sonraki turda önce compact edilir.
+    // DETACH ... CONCURRENTLY transaction bloğunda çalışamaz: autocommit bağlantıda session advisory lock ile.
+    // Yarıda kalmış bir concurrent detach ("detach pending") FINALIZE ile tamamlanır.
+    private boolean drop(YearMonth month) {
+        if (!isCompacted(month)) return false;
+        String name = partitionName(month);
+
+        return Boolean.TRUE.equals(jdbc.execute((ConnectionCallback<Boolean>) con -> {
+            if (!advisory(con, "select pg_try_advisory_lock(?)")) return false;
+            try (Statement st = con.createStatement()) {
+                Boolean pending = detachPending(con, name); // null -> zaten ayrılmış
+                if (pending != null) {
+                    st.execute("alter table insight_events detach partition " + name + (pending ? " finalize" : " concurrently"));
+                }
+                st.execute("drop table if exists " + name);
+                return true;
+            } finally {
+                advisory(con, "select pg_advisory_unlock(?)");
+            }
+        }));
+    }
+
+    private static boolean advisory(Connection con, String sql) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setLong(1, LOCK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static Boolean detachPending(Connection con, String name) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("""
+                select i.inhdetachpending from pg_inherits i
+                where i.inhparent = 'insight_events'::regclass and i.inhrelid = to_regclass(?)
+                """)) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getBoolean(1) : null;
+            }
+        }
+    }
+
+    private boolean isCompacted(YearMonth month) {
+        Integer n = jdbc.queryForObject(
+                "select count(*) from insight_compactions where month = ?", Integer.class, Date.valueOf(month.atDay(1)));
+        return n != null && n > 0;
+    }
+
+    // mevcut aylık partition'lar, eskiden yeniye. pg_inherits yerine isimden: detach edilip drop'u
+    // yarıda kalmış tablolar da bir sonraki turda silinir
+    List<YearMonth> partitions() {
+        List<YearMonth> out = new ArrayList<>();
+        jdbc.query("""
+                select c.relname from pg_class c
+                join pg_namespace n on n.oid = c.relnamespace
+                where n.nspname = current_schema() and c.relkind = 'r' and c.relname like 'insight_events_p%'
+                """, rs -> {
+            Matcher m = PARTITION.matcher(rs.getString(1));
+            if (m.matches()) out.add(YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))));
+        });
+        out.sort(null);
+        return out;
+    }
+
+    // lock başka node'dayken null döner (adım atlanır)
+    private Boolean locked(Supplier<Boolean> step) {
+        return tx.execute(status -> {
+            Boolean got = jdbc.queryForObject("select pg_try_advisory_xact_lock(?)", Boolean.class, LOCK_KEY);
+            return Boolean.TRUE.equals(got) ? step.get() : null;
+        });
+    }
+
+    static String partitionName(YearMonth month) {
+        return String.format("insight_events_p%04d%02d", month.getYear(), month.getMonthValue());
+    }
+
+    private static OffsetDateTime start(YearMonth month) {
+        return month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+    }
+}
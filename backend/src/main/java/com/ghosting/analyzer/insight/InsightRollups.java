@@ -0,0 +1,217 @@
+package com.ghosting.analyzer.insight;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+// insight_events geldikçe artımlı tutulan özetler; okuma tarafı ham event tablosunu hiç taramaz.
+// - insight_daily_rollups: (country, role, day) -> adet, match/ats toplamları
+// - insight_score_buckets: (country, role, day, metric, bucket) -> adet (10'luk skor histogramı)
+// - insight_daily_skills: (country, role, day, skill) -> eksik skill adedi
+// Hepsi artımlı upsert: node'lar aynı satırı birbirinin üzerine yazmadan artırır; satırlar anahtar sırasıyla
+// yazılır ki iki node'un eşzamanlı flush'ları satır kilitlerini farklı sırada alıp deadlock'a girmesin.
+// Satır sayısı gün x ülke x rol (x skill) ile büyür, event sayısıyla değil. Tablolar: db/migration/V2, V6, V7.
+// Skill'ler serbest metin: kapanmış günler (country, role, day) başına en sık keepPerDay skill'e budanır
+// (pruneSkills, InsightPartitionMaintenance çağırır); tablo gün başına sınırlı kalır, topSkills sınırlı satır toplar.
+@Component
+public class InsightRollups {
+
+    static final int BUCKETS = 10;
+
+    private static final String UPSERT_DAILY = """
+            insert into insight_daily_rollups (country, role, day, events, match_sum, ats_sum)
+            values (?, ?, ?, ?, ?, ?)
+            on conflict (country, role, day) do update set
+                events = insight_daily_rollups.events + excluded.events,
+                match_sum = insight_daily_rollups.match_sum + excluded.match_sum,
+                ats_sum = insight_daily_rollups.ats_sum + excluded.ats_sum
+            """;
+
+    private static final String UPSERT_BUCKET = """
+            insert into insight_score_buckets (country, role, day, metric, bucket, events)
+            values (?, ?, ?, ?, ?, ?)
+            on conflict (country, role, day, metric, bucket) do update set
+                events = insight_score_buckets.events + excluded.events
+            """;
+
+    private static final String UPSERT_SKILL = """
+            insert into insight_daily_skills (country, role, day, skill, events)
+            values (?, ?, ?, ?, ?)
+            on conflict (country, role, day, skill) do update set
+                events = insight_daily_skills.events + excluded.events
+            """;
+
+    // (country, role, day) başına en sık keep skill kalır; eşitlikte alfabetik
+    private static final String PRUNE_SKILLS = """
+            delete from insight_daily_skills d
+            using (
+                select country, role, skill from (
+                    select country, role, skill,
+                           row_number() over (partition by country, role order by events desc, skill) rn
+                    from insight_daily_skills where day = ?
+                ) r where rn > ?
+            ) t
+            where d.day = ? and d.country = t.country and d.role = t.role and d.skill = t.skill
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    private record DayKey(String country, String role, LocalDate day) {}
+
+    private record BucketKey(String country, String role, LocalDate day, String metric, int bucket) {}
+
+    private record SkillKey(String country, String role, LocalDate day, String skill) {}
+
+    private static final Comparator<DayKey> DAY_ORDER = Comparator.comparing(DayKey::country)
+            .thenComparing(DayKey::role).thenComparing(DayKey::day);
+    private static final Comparator<BucketKey> BUCKET_ORDER = Comparator.comparing(BucketKey::country)
+            .thenComparing(BucketKey::role).thenComparing(BucketKey::day)
+            .thenComparing(BucketKey::metric).thenComparingInt(BucketKey::bucket);
+    private static final Comparator<SkillKey> SKILL_ORDER = Comparator.comparing(SkillKey::country)
+            .thenComparing(SkillKey::role).thenComparing(SkillKey::day).thenComparing(SkillKey::skill);
+
+    private static final class Agg {
+        long events;
+        long matchSum;
+        long atsSum;
+    }
+
+    public record Day(LocalDate day, long events, long matchSum, long atsSum) {}
+
+    public record Skill(String skill, long count) {}
+
+    public InsightRollups(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    // InsightEventBuffer flush transaction'ı içinde, event insert'leriyle birlikte
+    public void apply(List<InsightEvent> events) {
+        Map<DayKey, Agg> daily = new TreeMap<>(DAY_ORDER);
+        Map<BucketKey, Long> buckets = new TreeMap<>(BUCKET_ORDER);
+        Map<SkillKey, Long> skills = new TreeMap<>(SKILL_ORDER);
+
+        for (InsightEvent e : events) {
+            String country = clip(e.getCountry(), 64);
+            String role = clip(e.getRoleGuess() == null ? "" : e.getRoleGuess(), 128);
+            Instant at = e.getCreatedAt() == null ? Instant.now() : e.getCreatedAt();
+            LocalDate day = LocalDate.ofInstant(at, ZoneOffset.UTC);
+
+            Agg agg = daily.computeIfAbsent(new DayKey(country, role, day), k -> new Agg());
+            agg.events++;
+            agg.matchSum += e.getMatchScore();
+            agg.atsSum += e.getAtsReadabilityScore();
+
+            buckets.merge(new BucketKey(country, role, day, "match", bucket(e.getMatchScore())), 1L, Long::sum);
+            buckets.merge(new BucketKey(country, role, day, "ats", bucket(e.getAtsReadabilityScore())), 1L, Long::sum);
+
+            if (e.getMissingSkills() != null) {
+                for (String s : e.getMissingSkills()) {
+                    if (s == null || s.isBlank()) continue;
+                    skills.merge(new SkillKey(country, role, day, clip(s.trim().toLowerCase(Locale.ROOT), 128)), 1L, Long::sum);
+                }
+            }
+        }
+
+        List<Object[]> dailyArgs = new ArrayList<>(daily.size());
+        daily.forEach((k, a) -> dailyArgs.add(new Object[]{k.country(), k.role(), Date.valueOf(k.day()), a.events, a.matchSum, a.atsSum}));
+        jdbc.batchUpdate(UPSERT_DAILY, dailyArgs);
+
+        List<Object[]> bucketArgs = new ArrayList<>(buckets.size());
+        buckets.forEach((k, n) -> bucketArgs.add(new Object[]{k.country(), k.role(), Date.valueOf(k.day()), k.metric(), k.bucket(), n}));
+        jdbc.batchUpdate(UPSERT_BUCKET, bucketArgs);
+
+        List<Object[]> skillArgs = new ArrayList<>(skills.size());
+        skills.forEach((k, n) -> skillArgs.add(new Object[]{k.country(), k.role(), Date.valueOf(k.day()), k.skill(), n}));
+        jdbc.batchUpdate(UPSERT_SKILL, skillArgs);
+    }
+
+    // ---- bakım (InsightPartitionMaintenance, advisory lock altında) ----
+
+    // kapanmış bir günün kuyruğunu siler; idempotent. Silinen satır sayısı döner
+    public int pruneSkills(LocalDate day, int keep) {
+        Date d = Date.valueOf(day);
+        return jdbc.update(PRUNE_SKILLS, d, keep, d);
+    }
+
+    // retention: before'dan eski günler
+    public int expireSkills(LocalDate before) {
+        return jdbc.update("delete from insight_daily_skills where day < ?", Date.valueOf(before));
+    }
+
+    // ---- okuma (sadece rollup tabloları) ----
+
+    public List<Day> daily(String country, String role, LocalDate from, LocalDate to) {
+        List<Object> args = new ArrayList<>();
+        String where = where(country, role, from, to, args);
+        return jdbc.query(
+                "select day, sum(events), sum(match_sum), sum(ats_sum) from insight_daily_rollups" + where + " group by day order by day",
+                (rs, i) -> new Day(rs.getDate(1).toLocalDate(), rs.getLong(2), rs.getLong(3), rs.getLong(4)),
+                args.toArray());
+    }
+
+    // metric -> [BUCKETS] (0-9, 10-19, ..., 90-100)
+    public Map<String, long[]> histograms(String country, String role, LocalDate from, LocalDate to) {
+        List<Object> args = new ArrayList<>();
+        String where = where(country, role, from, to, args);
+        Map<String, long[]> out = new LinkedHashMap<>();
+        out.put("match", new long[BUCKETS]);
+        out.put("ats", new long[BUCKETS]);
+        jdbc.query(
+                "select metric, bucket, sum(events) from insight_score_buckets" + where + " group by metric, bucket",
+                rs -> {
+                    long[] h = out.get(rs.getString(1));
+                    int b = rs.getInt(2);
+                    if (h != null && b >= 0 && b < BUCKETS) h[b] = rs.getLong(3);
+                },
+                args.toArray());
+        return out;
+    }
+
+    // [from, to] günlerinde en sık eksik skill'ler. Budanmış günlerde sadece o günün ilk keepPerDay skill'i sayılır:
+    // sayılar alt sınırdır, günlük listeye girmediği günler bir skill'in toplamına eklenmez
+    public List<Skill> topSkills(String country, String role, LocalDate from, LocalDate to, int limit) {
+        List<Object> args = new ArrayList<>();
+        String where = where(country, role, from, to, args);
+        args.add(limit);
+        return jdbc.query(
+                "select skill, sum(events) c from insight_daily_skills" + where + " group by skill order by c desc, skill limit ?",
+                (rs, i) -> new Skill(rs.getString(1), rs.getLong(2)),
+                args.toArray());
+    }
+
+    private static String where(String country, String role, LocalDate from, LocalDate to, List<Object> args) {
+        StringBuilder sb = new StringBuilder(" where day between ? and ?");
+        args.add(Date.valueOf(from));
+        args.add(Date.valueOf(to));
+        if (country != null) {
+            sb.append(" and country = ?");
+            args.add(country);
+        }
+        if (role != null) {
+            sb.append(" and role = ?");
+            args.add(role);
+        }
+        return sb.toString();
+    }
+
+    static int bucket(Integer score) {
+        int s = score == null ? 0 : score;
+        return Math.max(0, Math.min(BUCKETS - 1, s / 10));
+    }
+
+    private static String clip(String s, int max) {
+        return s.length() > max ? s.substring(0, max) : s;
+    }
+}
@@ -0,0 +1,24 @@
+package com.ghosting.analyzer.insight.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// country / role null -> tümü
+public record InsightResponse(
+        String country,
+        String role,
+        LocalDate from,
+        LocalDate to,
+        long events,
+        Double avgMatchScore,
+        Double avgAtsReadabilityScore,
+        long[] matchScoreHistogram,
+        long[] atsScoreHistogram,
+        List<Day> daily,
+        List<Skill> topMissingSkills
+) {
+    public record Day(LocalDate day, long events, double avgMatchScore, double avgAtsReadabilityScore) {}
+
+    // from..to aralığında skill'in eksik çıktığı analiz sayısı
+    public record Skill(String skill, long count) {}
+}
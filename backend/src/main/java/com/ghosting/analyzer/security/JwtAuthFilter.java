@@ -4,7 +4,7 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -12,14 +12,35 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    private static final List<SimpleGrantedAuthority> USER = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+    private static final List<SimpleGrantedAuthority> ADMIN =
+            List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"));
+
     private final JwtService jwtService;
 
+    // ROLE_ADMIN (actuator) verilen kullanıcı id'leri. id sunucuda üretildiği için kayıt olarak ele geçirilemez
+    // (e-posta listesi olsaydı henüz kayıt olmamış bir admin e-postasıyla kayıt olmak yeterdi).
+    private final Set<String> adminUserIds;
+
+    public JwtAuthFilter(
+            JwtService jwtService,
+            @Value("${app.security.adminUserIds:}") String adminUserIds
+    ) {
+        this.jwtService = jwtService;
+        this.adminUserIds = Arrays.stream(adminUserIds.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
     @Override
     protected void doFilterInternal(
             HttpServletRequest request,
@@ -49,7 +70,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                     new UsernamePasswordAuthenticationToken(
                             jwtUser,
                             null,
-                            List.of(new SimpleGrantedAuthority("ROLE_USER"))
+                            adminUserIds.contains(jwtUser.userId()) ? ADMIN : USER
                     );
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -1,5 +1,6 @@
 package com.ghosting.analyzer.security;
 
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -7,8 +8,15 @@ import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class JwtService {
@@ -16,12 +24,33 @@ public class JwtService {
     private final SecretKey key;
     private final long accessTokenMinutes;
 
+    // thread-safe, bir kez kurulur
+    private final JwtParser parser;
+
+    // Doğrulanmış token cache'i: sha-256(token) -> JwtUser, token'ın exp anına kadar geçerli.
+    // Dashboard aynı token'la sürekli istek attığı için HMAC + JSON parse her istekte tekrarlanmaz.
+    // ConcurrentHashMap: okumada kilit yok, süresi dolan kayıt okunurken silinir. Insert'te dakikada bir
+    // (ya da boyut aşılınca) süresi dolanlar süpürülür; hâlâ fazlaysa rastgele kayıtlar atılır (LRU değil).
+    // maxEntries <= 0 -> cache kapalı
+    private static final long SWEEP_INTERVAL_MS = 60_000;
+
+    private final int cacheMaxEntries;
+    private final Map<String, CachedUser> cache = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private volatile long nextSweepAt;
+
+    private record CachedUser(JwtUser user, long expiresAtMillis) {}
+
     public JwtService(
             @Value("${app.jwt.secret}") String secret,
-            @Value("${app.jwt.accessTokenMinutes}") long accessTokenMinutes
+            @Value("${app.jwt.accessTokenMinutes}") long accessTokenMinutes,
+            @Value("${app.jwt.cacheMaxEntries:10000}") int cacheMaxEntries
     ) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.accessTokenMinutes = accessTokenMinutes;
+        this.parser = Jwts.parser().verifyWith(key).build();
+
+        this.cacheMaxEntries = cacheMaxEntries;
     }
 
     public String generateAccessToken(String userId, String email) {
@@ -38,16 +67,65 @@ public class JwtService {
     }
 
     public JwtUser parse(String token) {
-        var claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        if (cacheMaxEntries <= 0) return verify(token).user();
+
+        String digest = digest(token);
+        long now = System.currentTimeMillis();
+
+        CachedUser hit = cache.get(digest);
+        if (hit != null) {
+            if (now < hit.expiresAtMillis()) return hit.user();
+            cache.remove(digest, hit); // süresi doldu; aşağıda parse ExpiredJwtException atar
+        }
+
+        CachedUser verified = verify(token);
+        if (verified.expiresAtMillis() > now) {
+            cache.put(digest, verified);
+            if (cache.size() > cacheMaxEntries || now >= nextSweepAt) sweep(now);
+        }
+        return verified.user();
+    }
 
-        return new JwtUser(
+    // aynı anda tek thread süpürür; diğerleri beklemeden devam eder
+    private void sweep(long now) {
+        if (!sweeping.compareAndSet(false, true)) return;
+        try {
+            nextSweepAt = now + SWEEP_INTERVAL_MS;
+            cache.values().removeIf(c -> c.expiresAtMillis() <= now);
+
+            Iterator<String> it = cache.keySet().iterator();
+            while (cache.size() > cacheMaxEntries && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    int cacheSize() {
+        return cache.size();
+    }
+
+    private CachedUser verify(String token) {
+        var claims = parser.parseSignedClaims(token).getPayload();
+
+        var user = new JwtUser(
                 claims.getSubject(),
                 (String) claims.get("email")
         );
+        // exp'siz token cache'lenmez
+        long exp = claims.getExpiration() == null ? 0 : claims.getExpiration().getTime();
+        return new CachedUser(user, exp);
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     public record JwtUser(String userId, String email) {}
@@ -43,8 +43,12 @@ public class SecurityConfig {
                         .requestMatchers("/error").permitAll()
                         .requestMatchers(org.springframework.http.HttpMethod.OPTIONS, "/**").permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
+                        // probe'lar açık; metrics / startup iç yapıyı gösterir -> sadece admin (app.security.adminUserIds)
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/api/cvs/**").authenticated()
                         .requestMatchers("/api/analyses/**").authenticated()
+                        .requestMatchers("/api/insights/**").authenticated()
                         .anyRequest().denyAll()
                 )
 
@@ -60,6 +64,7 @@ public class SecurityConfig {
         cfg.setAllowedMethods(List.of("GET","POST","PUT","DELETE","OPTIONS"));
         cfg.setAllowedHeaders(List.of("*"));
         cfg.setAllowCredentials(true);
+        cfg.setExposedHeaders(List.of("Retry-After")); // 429 (AiRateLimiter)
 
         UrlBasedCorsConfigurationSource src = new UrlBasedCorsConfigurationSource();
         src.registerCorsConfiguration("/**", cfg);
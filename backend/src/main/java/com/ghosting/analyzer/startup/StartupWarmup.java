@@ -0,0 +1,144 @@
+package com.ghosting.analyzer.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ghosting.analyzer.analysis.AnalysisJson;
+import com.ghosting.analyzer.analysis.AnalysisRepository;
+import com.ghosting.analyzer.analysis.AnalysisResult;
+import com.ghosting.analyzer.analysis.AnalysisStatus;
+import com.ghosting.analyzer.analysis.GhostingAnalyzerEngine;
+import com.ghosting.analyzer.analysis.dto.AnalyzeResponse;
+import com.ghosting.analyzer.cv.CvTokenIndex;
+import com.ghosting.analyzer.cv.TextExtractor;
+import com.ghosting.analyzer.security.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Deploy sonrası ilk kullanıcı isteği soğuk yolları (Tika registry, JIT, Jackson, Hibernate sorgu planı, JJWT) ödemesin.
+// ApplicationRunner'lar ApplicationReadyEvent'ten önce çalışır: warm-up bitene kadar
+// /actuator/health/readiness REFUSING_TRAFFIC kalır, liveness etkilenmez.
+// Adım süreleri app.warmup{step} timer'ına ve loga yazılır; faz süreleri /actuator/startup'ta.
+@Component
+public class StartupWarmup implements ApplicationRunner {
+
+    private final TextExtractor textExtractor;
+    private final GhostingAnalyzerEngine engine;
+    private final AnalysisRepository analysisRepository;
+    private final JwtService jwtService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry registry;
+
+    private final boolean enabled;
+    private final int engineIterations;
+
+    private long warmupMs = -1;
+
+    public StartupWarmup(
+            TextExtractor textExtractor,
+            GhostingAnalyzerEngine engine,
+            AnalysisRepository analysisRepository,
+            JwtService jwtService,
+            ObjectMapper objectMapper,
+            MeterRegistry registry,
+            @Value("${app.warmup.enabled:true}") boolean enabled,
+            @Value("${app.warmup.engineIterations:200}") int engineIterations
+    ) {
+        this.textExtractor = textExtractor;
+        this.engine = engine;
+        this.analysisRepository = analysisRepository;
+        this.jwtService = jwtService;
+        this.objectMapper = objectMapper;
+        this.registry = registry;
+        this.enabled = enabled;
+        this.engineIterations = engineIterations;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) return;
+
+        long started = System.nanoTime();
+        String[] cvText = {null};
+        String jd = resourceText("warmup/sample-jd.txt");
+
+        step("tika", () -> {
+            textExtractor.extract(resource("warmup/sample-cv.docx"));
+            cvText[0] = textExtractor.extract(resource("warmup/sample-cv.pdf"));
+        });
+
+        String cv = cvText[0] == null || cvText[0].isBlank() ? jd : cvText[0];
+        AnalysisResult[] result = {null};
+
+        step("engine", () -> {
+            CvTokenIndex index = CvTokenIndex.build(cv);
+            for (int i = 0; i < engineIterations; i++) {
+                result[0] = engine.analyze(cv, index, jd);
+                engine.analyze(cv, jd);
+            }
+        });
+
+        step("json", () -> {
+            String json = AnalysisJson.write(result[0]);
+            AnalysisJson.parse(json);
+            objectMapper.writeValueAsString(new AnalyzeResponse(UUID.randomUUID(), UUID.randomUUID(), json, AnalysisStatus.PENDING, Instant.now()));
+        });
+
+        step("jpa", () -> analysisRepository.findFirstPage(new UUID(0, 0), PageRequest.of(0, 1)));
+
+        step("jwt", () -> jwtService.parse(jwtService.generateAccessToken(new UUID(0, 0).toString(), "warmup@local")));
+
+        warmupMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        System.out.println("[STARTUP] Warm-up done in " + warmupMs + "ms");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady(ApplicationReadyEvent event) {
+        long readyMs = event.getTimeTaken() == null ? -1 : event.getTimeTaken().toMillis();
+        System.out.println("[STARTUP] Ready in " + readyMs + "ms (warm-up " + warmupMs + "ms)");
+    }
+
+    private interface Step {
+        void run() throws Exception;
+    }
+
+    // warm-up hatası readiness'ı engellemez; sadece loglanır
+    private void step(String name, Step step) {
+        long t = System.nanoTime();
+        try {
+            step.run();
+        } catch (Exception e) {
+            System.out.println("[STARTUP] Warm-up step '" + name + "' failed: " + e.getMessage());
+        }
+        long nanos = System.nanoTime() - t;
+        Timer.builder("app.warmup").tag("step", name).register(registry).record(nanos, TimeUnit.NANOSECONDS);
+        System.out.println("[STARTUP] warm-up " + name + " " + TimeUnit.NANOSECONDS.toMillis(nanos) + "ms");
+    }
+
+    private static byte[] resource(String path) throws IOException {
+        try (InputStream in = new ClassPathResource(path).getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static String resourceText(String path) {
+        try {
+            return new String(resource(path), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "backend java spring boot postgresql docker kubernetes";
+        }
+    }
+}
@@ -0,0 +1,479 @@
+package com.ghosting.analyzer.text;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Skill taxonomy (resources/skills/taxonomy.txt): alias / eş anlamlı / çok kelimeli ifade -> kanonik skill.
+// Alias'lar engine token kurallarıyla (TokenChars) token dizisine çevrilir ve token seviyesinde trie'ye derlenir:
+// - token sözlüğü: char arena + open-addressing tablo (tarama sırasında String üretilmez)
+// - trie kenarları: (node, token id) -> child, tek long[] / int[] tablo; node başına nesne yok
+// Tarama metin üzerinde tek geçiştir; en fazla en uzun alias kadar token bekletilir ve
+// her pozisyonda en uzun eşleşme seçilir ("spring boot" -> spring-boot, ".net core" -> tek dotnet).
+public final class SkillDictionary {
+
+    public static final String RESOURCE = "skills/taxonomy.txt";
+
+    private static final Pattern ID = Pattern.compile("[a-z0-9+#.-]+");
+
+    public record Skill(String id, String name, List<String> aliases) {}
+
+    private final Skill[] skills;
+    private final String version;
+    private final int aliasCount;
+
+    // token sözlüğü
+    private final char[] vocabChars;
+    private final int[] vocabOffsets;
+    private final int[] vocabLengths;
+    private final int[] vocabHashes;
+    private final int[] vocabSlots; // token id + 1, 0 = boş
+    private final int maxTokenLength;
+
+    // trie: node 0 = kök
+    private final long[] edgeKeys;   // (node << 32) | token
+    private final int[] edgeTargets; // 0 = boş slot (kök hiçbir kenarın hedefi değil)
+    private final int[] terminal;    // node -> skill, -1 = yok
+    private final boolean[] hasChildren;
+    private final int maxPhraseTokens;
+
+    private SkillDictionary(Skill[] skills, String version, int aliasCount,
+                            char[] vocabChars, int[] vocabOffsets, int[] vocabLengths, int[] vocabHashes, int[] vocabSlots,
+                            int maxTokenLength, long[] edgeKeys, int[] edgeTargets, int[] terminal, boolean[] hasChildren,
+                            int maxPhraseTokens) {
+        this.skills = skills;
+        this.version = version;
+        this.aliasCount = aliasCount;
+        this.vocabChars = vocabChars;
+        this.vocabOffsets = vocabOffsets;
+        this.vocabLengths = vocabLengths;
+        this.vocabHashes = vocabHashes;
+        this.vocabSlots = vocabSlots;
+        this.maxTokenLength = maxTokenLength;
+        this.edgeKeys = edgeKeys;
+        this.edgeTargets = edgeTargets;
+        this.terminal = terminal;
+        this.hasChildren = hasChildren;
+        this.maxPhraseTokens = maxPhraseTokens;
+    }
+
+    // uygulama içindeki tek sözlük; ilk kullanımda yüklenir (StartupWarmup engine adımı readiness'tan önce tetikler)
+    public static SkillDictionary bundled() {
+        return Bundled.INSTANCE;
+    }
+
+    private static final class Bundled {
+        static final SkillDictionary INSTANCE = load();
+
+        private static SkillDictionary load() {
+            long start = System.nanoTime();
+            try (InputStream in = SkillDictionary.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+                if (in == null) throw new IllegalStateException("Missing " + RESOURCE);
+                SkillDictionary d = parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+                System.out.println("[STARTUP] Skill dictionary: " + d.size() + " skills, " + d.aliasCount + " aliases, "
+                        + d.footprintBytes() / 1024 + " KB, compiled in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+                return d;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // satır: id | görünen ad | alias, alias ...   ('#' ile başlayan ve boş satırlar atlanır)
+    public static SkillDictionary parse(Reader reader) throws IOException {
+        List<Skill> skills = new ArrayList<>();
+        BufferedReader br = new BufferedReader(reader);
+        String line;
+        int no = 0;
+        while ((line = br.readLine()) != null) {
+            no++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            String[] parts = line.split("\\|", -1);
+            if (parts.length < 2 || parts.length > 3) {
+                throw new IllegalArgumentException(RESOURCE + ":" + no + ": expected 'id | name | aliases'");
+            }
+            List<String> aliases = new ArrayList<>();
+            if (parts.length == 3) {
+                for (String a : parts[2].split(",")) {
+                    if (!a.isBlank()) aliases.add(a.strip());
+                }
+            }
+            skills.add(new Skill(parts[0].strip(), parts[1].strip(), aliases));
+        }
+        return compile(skills);
+    }
+
+    public static SkillDictionary compile(List<Skill> input) {
+        Skill[] skills = input.toArray(new Skill[0]);
+
+        Map<String, Integer> vocab = new HashMap<>();
+        List<String> tokens = new ArrayList<>();
+        Map<Long, Integer> edges = new HashMap<>();
+        List<Integer> terminals = new ArrayList<>();
+        terminals.add(-1);
+
+        Map<String, Integer> owner = new HashMap<>();
+        Set<String> ids = new LinkedHashSet<>();
+        int aliasCount = 0;
+        int maxPhrase = 1;
+        int versionHash = 1;
+
+        for (int s = 0; s < skills.length; s++) {
+            Skill skill = skills[s];
+            if (!ID.matcher(skill.id()).matches()) throw new IllegalArgumentException("Invalid skill id: " + skill.id());
+            if (!ids.add(skill.id())) throw new IllegalArgumentException("Duplicate skill id: " + skill.id());
+
+            versionHash = 31 * versionHash + skill.id().hashCode();
+            versionHash = 31 * versionHash + skill.name().hashCode();
+
+            // id de eşleşen biçimlerden biri ("spring-boot" -> spring boot)
+            Set<String> forms = new LinkedHashSet<>();
+            forms.add(String.join(" ", tokenize(skill.id())));
+            for (String a : skill.aliases()) {
+                List<String> t = tokenize(a);
+                if (!t.isEmpty()) forms.add(String.join(" ", t));
+                versionHash = 31 * versionHash + a.hashCode();
+            }
+
+            for (String form : forms) {
+                Integer prev = owner.putIfAbsent(form, s);
+                if (prev != null && prev != s) {
+                    throw new IllegalArgumentException("Alias '" + form + "' maps to both " + skills[prev].id() + " and " + skill.id());
+                }
+
+                String[] phrase = form.split(" ");
+                maxPhrase = Math.max(maxPhrase, phrase.length);
+                int node = 0;
+                for (String tok : phrase) {
+                    int tid = vocab.computeIfAbsent(tok, k -> {
+                        tokens.add(k);
+                        return tokens.size() - 1;
+                    });
+                    long key = edgeKey(node, tid);
+                    Integer child = edges.get(key);
+                    if (child == null) {
+                        child = terminals.size();
+                        terminals.add(-1);
+                        edges.put(key, child);
+                    }
+                    node = child;
+                }
+                terminals.set(node, s);
+                aliasCount++;
+            }
+        }
+
+        // token sözlüğü -> düz diziler
+        int nt = tokens.size();
+        int arenaLen = 0;
+        for (String t : tokens) arenaLen += t.length();
+        char[] chars = new char[arenaLen];
+        int[] offsets = new int[nt];
+        int[] lengths = new int[nt];
+        int[] hashes = new int[nt];
+        int[] slots = new int[tableSize(nt)];
+        int maxTokenLength = 0;
+        int off = 0;
+        for (int i = 0; i < nt; i++) {
+            String t = tokens.get(i);
+            t.getChars(0, t.length(), chars, off);
+            offsets[i] = off;
+            lengths[i] = t.length();
+            hashes[i] = t.hashCode();
+            off += t.length();
+            maxTokenLength = Math.max(maxTokenLength, t.length());
+
+            int mask = slots.length - 1;
+            int slot = mix(hashes[i]) & mask;
+            while (slots[slot] != 0) slot = (slot + 1) & mask;
+            slots[slot] = i + 1;
+        }
+
+        // trie kenarları -> düz tablo
+        long[] edgeKeys = new long[tableSize(edges.size())];
+        int[] edgeTargets = new int[edgeKeys.length];
+        boolean[] hasChildren = new boolean[terminals.size()];
+        for (Map.Entry<Long, Integer> e : edges.entrySet()) {
+            long key = e.getKey();
+            int mask = edgeKeys.length - 1;
+            int slot = mix(Long.hashCode(key)) & mask;
+            while (edgeTargets[slot] != 0) slot = (slot + 1) & mask;
+            edgeKeys[slot] = key;
+            edgeTargets[slot] = e.getValue();
+            hasChildren[(int) (key >>> 32)] = true;
+        }
+
+        int[] terminal = new int[terminals.size()];
+        for (int i = 0; i < terminal.length; i++) terminal[i] = terminals.get(i);
+
+        return new SkillDictionary(skills, Integer.toHexString(versionHash), aliasCount,
+                chars, offsets, lengths, hashes, slots, maxTokenLength,
+                edgeKeys, edgeTargets, terminal, hasChildren, maxPhrase);
+    }
+
+    public int size() {
+        return skills.length;
+    }
+
+    public Skill skill(int index) {
+        return skills[index];
+    }
+
+    // taxonomy değişince değişir; CvTokenIndex eski index'leri bununla tanır
+    public String version() {
+        return version;
+    }
+
+    // CvTokenIndex'te skill kaydı: token alfabesinde '@' olmadığı için gerçek token'larla çakışmaz
+    public String indexTerm(int skill) {
+        return "@" + skills[skill].id();
+    }
+
+    public String versionTerm() {
+        return "@@" + version;
+    }
+
+    // token id'si; bulunamazsa baş/son noktalar kırpılarak tekrar denenir ("microservices." -> microservices)
+    private int lookup(String token) {
+        char[] t = token.toCharArray();
+        int id = tokenId(t, 0, t.length);
+        if (id >= 0) return id;
+        int a = 0;
+        int b = t.length;
+        while (a < b && t[a] == '.') a++;
+        while (b > a && t[b - 1] == '.') b--;
+        return a < b ? tokenId(t, a, b) : -1;
+    }
+
+    // yaklaşık bellek: dizi gövdeleri + başlıklar (Skill kayıtları hariç)
+    public long footprintBytes() {
+        return 16L * 10
+                + 2L * vocabChars.length
+                + 4L * (vocabOffsets.length + vocabLengths.length + vocabHashes.length + vocabSlots.length)
+                + 8L * edgeKeys.length
+                + 4L * (edgeTargets.length + terminal.length)
+                + hasChildren.length;
+    }
+
+    public Hits scan(CharSequence text) {
+        Scan sc = new Scan(skills.length, vocabLengths.length, maxPhraseTokens);
+        if (text == null) return sc.hits();
+
+        char[] tok = new char[maxTokenLength + 2];
+        int tl = 0;
+        int n = text.length();
+
+        for (int i = 0; i <= n; i++) {
+            char c = i < n ? TokenChars.fold(text.charAt(i)) : 0;
+            if (c != 0) {
+                if (tl < tok.length) tok[tl] = c;
+                tl++;
+                continue;
+            }
+            if (tl == 0) continue;
+
+            int tid = -1;
+            if (tl <= tok.length) {
+                tid = tokenId(tok, 0, tl);
+                if (tid < 0) {
+                    // cümle sonu / baş noktası: "node.js." -> node.js (".net" gibi alias'lar önce ham haliyle denenir)
+                    int a = 0;
+                    int b = tl;
+                    while (a < b && tok[a] == '.') a++;
+                    while (b > a && tok[b - 1] == '.') b--;
+                    if (a < b && (a > 0 || b < tl)) tid = tokenId(tok, a, b);
+                }
+            }
+            tl = 0;
+
+            if (tid < 0) {
+                // sözlük dışı token her ifadeyi böler
+                sc.drain();
+            } else {
+                sc.push(tid);
+            }
+        }
+        sc.drain();
+        return sc.hits();
+    }
+
+    // Leftmost-longest: bekleyen token'lar en uzun ifade kadar biriktirilir, baştaki pozisyon için
+    // en uzun alias seçilir ("spring boot" -> sadece spring-boot, "spring" ayrıca sayılmaz)
+    private final class Scan {
+        final int[] counts;
+        final int[] first;
+        final boolean[] covered; // eşleşen alias span'lerindeki token'lar
+        final int[] pending;
+        int size;
+        int position;
+
+        Scan(int skills, int vocab, int window) {
+            this.counts = new int[skills];
+            this.first = new int[skills];
+            this.covered = new boolean[vocab];
+            this.pending = new int[window];
+        }
+
+        void push(int token) {
+            pending[size++] = token;
+            if (size == pending.length) resolve();
+        }
+
+        void drain() {
+            while (size > 0) resolve();
+        }
+
+        // pending[0]'dan başlayan en uzun eşleşmeyi kaydeder, tüketilen token'ları kaydırır
+        private void resolve() {
+            int node = 0;
+            int bestLen = 0;
+            int bestSkill = -1;
+            for (int k = 0; k < size; k++) {
+                node = child(node, pending[k]);
+                if (node <= 0) break;
+                if (terminal[node] >= 0) {
+                    bestLen = k + 1;
+                    bestSkill = terminal[node];
+                }
+                if (!hasChildren[node]) break;
+            }
+
+            if (bestSkill >= 0) {
+                if (counts[bestSkill]++ == 0) first[bestSkill] = position;
+                for (int k = 0; k < bestLen; k++) covered[pending[k]] = true;
+            }
+            int consumed = Math.max(1, bestLen);
+            System.arraycopy(pending, consumed, pending, 0, size - consumed);
+            size -= consumed;
+            position += consumed;
+        }
+
+        Hits hits() {
+            return new Hits(SkillDictionary.this, counts, first, covered);
+        }
+    }
+
+    private int tokenId(char[] tok, int from, int to) {
+        int len = to - from;
+        if (len > maxTokenLength) return -1;
+        int h = 0;
+        for (int i = from; i < to; i++) h = 31 * h + tok[i];
+
+        int mask = vocabSlots.length - 1;
+        int slot = mix(h) & mask;
+        int e;
+        while ((e = vocabSlots[slot]) != 0) {
+            int id = e - 1;
+            if (vocabHashes[id] == h && vocabLengths[id] == len && sameChars(id, tok, from, len)) return id;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private boolean sameChars(int id, char[] tok, int from, int len) {
+        int off = vocabOffsets[id];
+        for (int i = 0; i < len; i++) if (vocabChars[off + i] != tok[from + i]) return false;
+        return true;
+    }
+
+    private int child(int node, int token) {
+        long key = edgeKey(node, token);
+        int mask = edgeKeys.length - 1;
+        int slot = mix(Long.hashCode(key)) & mask;
+        int target;
+        while ((target = edgeTargets[slot]) != 0) {
+            if (edgeKeys[slot] == key) return target;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // alias'ı engine token'larına böler (nokta kırpılmaz: ".net", "node.js")
+    static List<String> tokenize(String s) {
+        List<String> out = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i <= s.length(); i++) {
+            char c = i < s.length() ? TokenChars.fold(s.charAt(i)) : 0;
+            if (c != 0) {
+                sb.append(c);
+            } else if (sb.length() > 0) {
+                out.add(sb.toString());
+                sb.setLength(0);
+            }
+        }
+        return out;
+    }
+
+    private static long edgeKey(int node, int token) {
+        return ((long) node << 32) | token;
+    }
+
+    // yük faktörü <= 0.5, 2'nin kuvveti
+    private static int tableSize(int entries) {
+        return Integer.highestOneBit(Math.max(4, entries * 2 - 1)) << 1;
+    }
+
+    private static int mix(int h) {
+        h ^= (h >>> 16);
+        h *= 0x45d9f3b;
+        return h ^ (h >>> 16);
+    }
+
+    // skill index'i -> metindeki sayı ve ilk görülme (token sırası)
+    public static final class Hits {
+        private final SkillDictionary dictionary;
+        private final int[] counts;
+        private final int[] first;
+        private final boolean[] covered;
+
+        private Hits(SkillDictionary dictionary, int[] counts, int[] first, boolean[] covered) {
+            this.dictionary = dictionary;
+            this.counts = counts;
+            this.first = first;
+            this.covered = covered;
+        }
+
+        // token bu metinde eşleşen bir alias'ın parçası mı (engine bu token'ları genel keyword olarak tekrar saymaz).
+        // Sadece sözlükte geçmesi yetmez: "security" tek başına geçiyorsa ("spring security" eşleşmediyse) keyword kalır.
+        public boolean covers(String token) {
+            int id = dictionary.lookup(token);
+            return id >= 0 && covered[id];
+        }
+
+        public boolean found(int skill) {
+            return counts[skill] > 0;
+        }
+
+        public int count(int skill) {
+            return counts[skill];
+        }
+
+        // bulunan skill'ler: sayı azalan, eşitlikte metinde önce görülen önce
+        public int[] ranked() {
+            int n = 0;
+            for (int c : counts) if (c > 0) n++;
+            Integer[] found = new Integer[n];
+            n = 0;
+            for (int s = 0; s < counts.length; s++) if (counts[s] > 0) found[n++] = s;
+            Arrays.sort(found, (a, b) -> counts[a] != counts[b] ? Integer.compare(counts[b], counts[a]) : Integer.compare(first[a], first[b]));
+
+            int[] out = new int[n];
+            for (int i = 0; i < n; i++) out[i] = found[i];
+            return out;
+        }
+    }
+}
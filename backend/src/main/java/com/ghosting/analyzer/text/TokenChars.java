@@ -0,0 +1,33 @@
+package com.ghosting.analyzer.text;
+
+// Keyword token alfabesi [a-z0-9+#.] ve tek karakterlik case folding.
+// CV index, JD keyword çıkarımı ve keyword matcher aynı kuralı kullanır.
+public final class TokenChars {
+
+    private static final char[] ASCII = new char[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) ASCII[c] = c;
+        for (char c = 'A'; c <= 'Z'; c++) ASCII[c] = (char) (c + 32);
+        for (char c = '0'; c <= '9'; c++) ASCII[c] = c;
+        ASCII['+'] = '+';
+        ASCII['#'] = '#';
+        ASCII['.'] = '.';
+    }
+
+    private TokenChars() {}
+
+    // Token karakteri ise küçük harfli karşılığı, değilse 0.
+    // toLowerCase(Locale.ROOT) 'İ'yi "i̇" (i + birleşik nokta) yapıp kelimeyi bölüyordu; 'ı' ise hiç token sayılmıyordu.
+    // Burada ikisi de 'i'ye katlanır: "YAZILIM" / "yazılım" -> "yazilim", "İstanbul" -> "istanbul".
+    public static char fold(char c) {
+        if (c < 128) return ASCII[c];
+        if (c == 'İ' || c == 'ı') return 'i';
+        char l = Character.toLowerCase(c);
+        return l < 128 ? ASCII[l] : 0;
+    }
+
+    public static boolean isTokenChar(char c) {
+        return fold(c) != 0;
+    }
+}
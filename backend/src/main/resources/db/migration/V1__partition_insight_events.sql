@@ -0,0 +1,81 @@
+-- insight_events: created_at üzerinde aylık range partition (UTC ay sınırları).
+-- Partition adı insight_events_pYYYYMM; henüz partition'ı olmayan satırlar insight_events_default'a düşer.
+-- Eski (partition'sız, ddl-auto ile oluşmuş) tablo varsa satırları yeni yapıya taşınır.
+
+do $$
+declare
+    v_pk text;
+begin
+    if exists (select 1 from pg_class c
+               join pg_namespace n on n.oid = c.relnamespace
+               where n.nspname = current_schema() and c.relname = 'insight_events' and c.relkind = 'r') then
+        alter table insight_events rename to insight_events_legacy;
+
+        -- pk index adı yeni tabloyla çakışmasın
+        select conname into v_pk from pg_constraint
+        where conrelid = 'insight_events_legacy'::regclass and contype = 'p';
+        if v_pk is not null then
+            execute format('alter table insight_events_legacy rename constraint %I to %I', v_pk, 'insight_events_legacy_pkey');
+        end if;
+    end if;
+end $$;
+
+-- partition anahtarı pk'da olmak zorunda
+create table if not exists insight_events (
+    id uuid not null,
+    country varchar(255) not null,
+    role_guess varchar(255),
+    seniority_guess varchar(255),
+    match_score integer not null,
+    ats_readability_score integer not null,
+    missing_skills text[],
+    created_at timestamp(6) with time zone not null,
+    primary key (id, created_at)
+) partition by range (created_at);
+
+create table if not exists insight_events_default partition of insight_events default;
+
+-- Ayın partition'ını yoksa oluşturur; default'a düşmüş o aya ait satırları içine taşır.
+-- InsightPartitionMaintenance ileriye dönük ayları bununla hazırlar.
+create or replace function insight_events_ensure_partition(p_month date) returns boolean
+language plpgsql as $$
+declare
+    v_start date := date_trunc('month', p_month)::date;
+    v_from timestamptz := v_start::timestamp at time zone 'UTC';
+    v_to timestamptz := (v_start + interval '1 month')::timestamp at time zone 'UTC';
+    v_name text := 'insight_events_p' || to_char(v_start, 'YYYYMM');
+begin
+    if to_regclass(v_name) is not null then
+        return false;
+    end if;
+
+    execute format('create table %I (like insight_events including defaults including constraints)', v_name);
+    execute format('insert into %I select * from insight_events_default where created_at >= $1 and created_at < $2', v_name)
+        using v_from, v_to;
+    delete from insight_events_default where created_at >= v_from and created_at < v_to;
+    execute format('alter table insight_events attach partition %I for values from (%L) to (%L)', v_name, v_from, v_to);
+    return true;
+end $$;
+
+do $$
+declare
+    v_month date;
+    v_last date := (date_trunc('month', now() at time zone 'UTC') + interval '2 months')::date;
+begin
+    if to_regclass('insight_events_legacy') is not null then
+        select date_trunc('month', min(created_at) at time zone 'UTC')::date into v_month from insight_events_legacy;
+    end if;
+    v_month := least(coalesce(v_month, v_last), date_trunc('month', now() at time zone 'UTC')::date);
+
+    while v_month <= v_last loop
+        perform insight_events_ensure_partition(v_month);
+        v_month := (v_month + interval '1 month')::date;
+    end loop;
+
+    if to_regclass('insight_events_legacy') is not null then
+        insert into insight_events (id, country, role_guess, seniority_guess, match_score, ats_readability_score, missing_skills, created_at)
+        select id, country, role_guess, seniority_guess, match_score, ats_readability_score, missing_skills, created_at
+        from insight_events_legacy;
+        drop table insight_events_legacy;
+    end if;
+end $$;
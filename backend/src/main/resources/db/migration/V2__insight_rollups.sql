@@ -0,0 +1,30 @@
+-- InsightRollups'ın artımlı özet tabloları (önceden uygulama açılışında oluşturuluyordu)
+
+create table if not exists insight_daily_rollups (
+    country varchar(64) not null,
+    role varchar(128) not null,
+    day date not null,
+    events bigint not null,
+    match_sum bigint not null,
+    ats_sum bigint not null,
+    primary key (country, role, day)
+);
+
+create table if not exists insight_score_buckets (
+    country varchar(64) not null,
+    role varchar(128) not null,
+    day date not null,
+    metric varchar(8) not null,
+    bucket smallint not null,
+    events bigint not null,
+    primary key (country, role, day, metric, bucket)
+);
+
+create table if not exists insight_skill_counters (
+    country varchar(64) not null,
+    role varchar(128) not null,
+    skill varchar(128) not null,
+    count bigint not null,
+    error bigint not null,
+    primary key (country, role, skill)
+);
@@ -0,0 +1,30 @@
+-- Kapanmış ayların ham partition'ından sıkıştırılmış özetler.
+-- Ham partition retention ile silindikten sonra ay bazında kalan tek kayıt bunlardır.
+
+create table insight_monthly_summaries (
+    month date not null,
+    country varchar(255) not null,
+    role varchar(255) not null,
+    seniority varchar(255) not null,
+    events bigint not null,
+    match_sum bigint not null,
+    ats_sum bigint not null,
+    primary key (month, country, role, seniority)
+);
+
+-- ay içindeki tam eksik skill sayıları (Space-Saving'in aksine kesin)
+create table insight_monthly_skills (
+    month date not null,
+    country varchar(255) not null,
+    role varchar(255) not null,
+    skill text not null,
+    events bigint not null,
+    primary key (month, country, role, skill)
+);
+
+-- özetlenmiş aylar; retention sadece burada kaydı olan partition'ları siler
+create table insight_compactions (
+    month date primary key,
+    events bigint not null,
+    compacted_at timestamp(6) with time zone not null
+);
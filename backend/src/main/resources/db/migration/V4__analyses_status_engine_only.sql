@@ -0,0 +1,4 @@
+-- Hibernate enum kolonu için check constraint üretiyor ve ddl-auto: update bunu güncellemiyor.
+-- Yeni ENGINE_ONLY durumu eski şemada insert'i kırmasın diye kaldırılır (değerler AnalysisStatus'ta sınırlı).
+-- Yeni kurulumda tablo henüz yoktur; Hibernate güncel enum ile oluşturur.
+alter table if exists analyses drop constraint if exists analyses_status_check;
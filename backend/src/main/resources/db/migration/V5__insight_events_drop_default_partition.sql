@@ -0,0 +1,47 @@
+-- insight_events_default kaldırılır: default partition varken DETACH PARTITION ... CONCURRENTLY kullanılamıyor,
+-- retention drop'u da ebeveyne ACCESS EXCLUSIVE alıp yazmaları bekletiyordu.
+-- Default'ta kalmış satırlar önce kendi aylarının partition'ına taşınır (eski fonksiyon bunu yapar).
+
+do $$
+declare
+    v_month date;
+begin
+    if to_regclass('insight_events_default') is not null then
+        for v_month in
+            select distinct date_trunc('month', created_at at time zone 'UTC')::date from insight_events_default
+        loop
+            perform insight_events_ensure_partition(v_month);
+        end loop;
+        drop table insight_events_default;
+    end if;
+end $$;
+
+-- Artık default yok: partition'ı olmayan aya insert hata verir. InsightPartitionMaintenance ileriye dönük
+-- ayları hazırlar; InsightEventBuffer de her flush'tan önce içinde bulunulan ayın partition'ını hazırlar
+-- (ay başına bir kez). Yine de başarısız olan batch tekrar denenmez, düşürülür (insight.buffer.dropped).
+-- attach, ebeveyne SHARE UPDATE EXCLUSIVE alır (yazmalar devam eder); default olmadığı için tarama da yok.
+create or replace function insight_events_ensure_partition(p_month date) returns boolean
+language plpgsql as $$
+declare
+    v_start date := date_trunc('month', p_month)::date;
+    v_from timestamptz := v_start::timestamp at time zone 'UTC';
+    v_to timestamptz := (v_start + interval '1 month')::timestamp at time zone 'UTC';
+    v_name text := 'insight_events_p' || to_char(v_start, 'YYYYMM');
+begin
+    if to_regclass(v_name) is not null then
+        return false;
+    end if;
+
+    execute format('create table %I (like insight_events including defaults including constraints)', v_name);
+    execute format('alter table insight_events attach partition %I for values from (%L) to (%L)', v_name, v_from, v_to);
+    return true;
+end $$;
+
+do $$
+declare
+    v_month date := date_trunc('month', now() at time zone 'UTC')::date;
+begin
+    for i in 0..2 loop
+        perform insight_events_ensure_partition((v_month + make_interval(months => i))::date);
+    end loop;
+end $$;
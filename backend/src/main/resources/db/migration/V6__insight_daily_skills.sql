@@ -0,0 +1,33 @@
+-- Eksik skill sayaçları: (ülke, rol) başına node içi Space-Saving özeti yerine gün bazında tam sayım.
+-- Artımlı upsert (count = count + excluded.count) birden fazla node'un flush'larını birbirinin üzerine yazmaz;
+-- gün kolonu /api/insights'taki from/to aralığıyla filtrelenir.
+
+create table if not exists insight_daily_skills (
+    country varchar(64) not null,
+    role varchar(128) not null,
+    day date not null,
+    skill varchar(128) not null,
+    events bigint not null,
+    primary key (country, role, day, skill)
+);
+
+-- ham event'lerden (retention içindeki aylar) geriye dönük doldurma
+insert into insight_daily_skills (country, role, day, skill, events)
+select left(e.country, 64), left(coalesce(e.role_guess, ''), 128), (e.created_at at time zone 'UTC')::date,
+       left(lower(trim(s.skill)), 128), count(*)
+from insight_events e, unnest(e.missing_skills) as s(skill)
+where trim(s.skill) <> ''
+group by 1, 2, 3, 4
+on conflict (country, role, day, skill) do update set events = insight_daily_skills.events + excluded.events;
+
+-- ham partition'ı silinmiş aylar: aylık özet ayın ilk gününe yazılır
+insert into insight_daily_skills (country, role, day, skill, events)
+select left(m.country, 64), left(m.role, 128), m.month, left(m.skill, 128), sum(m.events)
+from insight_monthly_skills m
+where not exists (
+    select 1 from insight_daily_skills d
+    where d.day >= m.month and d.day < (m.month + interval '1 month')::date)
+group by 1, 2, 3, 4
+on conflict (country, role, day, skill) do update set events = insight_daily_skills.events + excluded.events;
+
+drop table if exists insight_skill_counters;
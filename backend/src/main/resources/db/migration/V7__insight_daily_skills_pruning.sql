@@ -0,0 +1,11 @@
+-- insight_daily_skills sınırlı kalsın: kapanmış günler (country, role) başına top-K'ya budanır
+-- ve retention ile silinir (InsightPartitionMaintenance). Budanmış günler burada tutulur; bakım kaldığı günden devam eder.
+
+create table if not exists insight_skill_prunes (
+    day date primary key,
+    pruned bigint not null,
+    pruned_at timestamp(6) with time zone not null
+);
+
+-- budama / retention gün bazında çalışır (PK country ile başlıyor)
+create index if not exists idx_insight_daily_skills_day on insight_daily_skills (day);
@@ -0,0 +1,71 @@
+package com.ghosting.analyzer.analysis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AiRateLimiterTest {
+
+    // capacity 10, dakikada 1 token: test süresince dolum ihmal edilebilir
+    private AiRateLimiter limiter(String mode) {
+        return new AiRateLimiter(true, mode, 10, 1, 30, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void burstUpToCapacityThenThrottled() {
+        var limiter = limiter("reject");
+        for (int i = 0; i < 10; i++) assertEquals(0, limiter.tryAcquire("u", 1));
+        assertTrue(limiter.tryAcquire("u", 1) > 0);
+        assertEquals(0, limiter.tryAcquire("other", 1), "buckets are per user");
+    }
+
+    @Test
+    void costIsChargedInFull() {
+        var limiter = limiter("reject");
+        assertEquals(0, limiter.tryAcquire("u", 8));
+        assertTrue(limiter.tryAcquire("u", 3) > 0, "only 2 tokens left");
+        assertEquals(0, limiter.tryAcquire("u", 2));
+    }
+
+    @Test
+    void costAboveCapacityNeverPasses() {
+        assertTrue(limiter("reject").tryAcquire("u", 11) > 0);
+    }
+
+    @Test
+    void acquireUpToGrantsWhatIsLeft() {
+        var limiter = limiter("degrade");
+        assertEquals(10, limiter.acquireUpTo("u", 50).granted(), "a 50-job batch gets at most the bucket");
+
+        var empty = limiter.acquireUpTo("u", 5);
+        assertEquals(0, empty.granted());
+        assertTrue(empty.retryAfterMs() > 0);
+    }
+
+    @Test
+    void acquireUpToLeavesRemainderForLaterCalls() {
+        var limiter = limiter("degrade");
+        assertEquals(4, limiter.acquireUpTo("u", 4).granted());
+        assertEquals(6, limiter.acquireUpTo("u", 50).granted());
+    }
+
+    @Test
+    void refundRestoresTokens() {
+        var limiter = limiter("reject");
+        assertEquals(0, limiter.tryAcquire("u", 10));
+        assertTrue(limiter.tryAcquire("u", 1) > 0);
+
+        limiter.refund("u", 1);
+        assertEquals(0, limiter.tryAcquire("u", 1));
+        assertTrue(limiter.tryAcquire("u", 1) > 0);
+    }
+
+    @Test
+    void disabledLimiterGrantsEverything() {
+        var limiter = new AiRateLimiter(false, "degrade", 10, 1, 30, new SimpleMeterRegistry());
+        assertEquals(50, limiter.acquireUpTo("u", 50).granted());
+        assertEquals(0, limiter.tryAcquire("u", 100));
+    }
+}
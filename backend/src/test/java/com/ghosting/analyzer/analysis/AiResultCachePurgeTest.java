@@ -0,0 +1,48 @@
+package com.ghosting.analyzer.analysis;
+
+import com.ghosting.analyzer.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// ai_result_cache purge'ü gerçek Postgres'te: sadece TTL'i geçenler, küçük parçalar halinde silinir.
+class AiResultCachePurgeTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private AiResultCachePurge purge;
+
+    @Autowired
+    private AiCacheEntryRepository repository;
+
+    @Test
+    void deletesOnlyExpiredRowsInBatches() {
+        Instant now = Instant.now();
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < 5; i++) save(prefix + "-old-" + i, now.minus(Duration.ofDays(3)));
+        save(prefix + "-fresh", now.minus(Duration.ofMinutes(5)));
+
+        // batch 2 -> 3 transaction (2 + 2 + 1)
+        int deleted = purge.purge(now.minus(Duration.ofDays(1)), 2);
+
+        assertTrue(deleted >= 5, "deleted " + deleted);
+        for (int i = 0; i < 5; i++) assertFalse(repository.existsById(prefix + "-old-" + i));
+        assertTrue(repository.existsById(prefix + "-fresh"));
+        assertEquals(0, purge.purge(now.minus(Duration.ofDays(1)), 2));
+    }
+
+    private void save(String key, Instant createdAt) {
+        repository.save(AiCacheEntry.builder()
+                .cacheKey(key)
+                .model("model")
+                .aiJson("{}")
+                .createdAt(createdAt)
+                .build());
+    }
+}
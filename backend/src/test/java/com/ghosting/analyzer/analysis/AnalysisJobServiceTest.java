@@ -0,0 +1,177 @@
+package com.ghosting.analyzer.analysis;
+
+import com.ghosting.analyzer.insight.InsightEventBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Single-flight takipçileri: worker'ı bekletmez, stream ortasında katılınca birikmiş metni alır, liderle biter.
+class AnalysisJobServiceTest {
+
+    private static final String AI_JSON = "{\"ghosting_probability\":0.4,\"match_score\":70}";
+
+    private final AnalysisRepository repository = mock(AnalysisRepository.class);
+    private final HuggingFaceAiService hf = mock(HuggingFaceAiService.class);
+    private final AiPromptBuilder promptBuilder = mock(AiPromptBuilder.class);
+    private final AiResultCache cache = mock(AiResultCache.class);
+    private final AnalysisStreamHub hub = mock(AnalysisStreamHub.class);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch leaderStreaming = new CountDownLatch(1);
+    private final CountDownLatch releaseLeader = new CountDownLatch(1);
+    private AnalysisJobService service;
+
+    @BeforeEach
+    void setUp() {
+        when(hf.model()).thenReturn("model");
+        when(promptBuilder.build(anyString(), anyString(), any(), any(), any()))
+                .thenAnswer(inv -> new AiPromptBuilder.Prompt(inv.getArgument(1), 10, 10, 1, 1, 0));
+        when(cache.key(anyString(), anyString())).thenAnswer(inv -> inv.getArgument(1));
+        when(hf.generateStreaming(anyString(), any())).thenAnswer(inv -> {
+            Consumer<String> onDelta = inv.getArgument(1);
+            String prompt = inv.getArgument(0);
+            if (prompt.startsWith("slow")) {
+                onDelta.accept("{\"ghosting_probability\"");
+                leaderStreaming.countDown();
+                releaseLeader.await(10, TimeUnit.SECONDS);
+                onDelta.accept(":0.4,\"match_score\":70}");
+            }
+            return prompt.equals("slow-fail") ? null : AI_JSON;
+        });
+
+        // 2 worker: lider birini tutar, takipçi diğerini bırakmazsa üçüncü iş çalışamaz
+        service = new AnalysisJobService(repository, mock(InsightEventBuffer.class), hf, promptBuilder, cache, hub,
+                registry, 2, 10, 0, true, 5_000);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        releaseLeader.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void followerReleasesWorkerAndGetsReplayThenResult() throws Exception {
+        UUID leader = submit("slow");
+        assertTrue(leaderStreaming.await(5, TimeUnit.SECONDS));
+
+        UUID follower = submit("slow");
+        verify(hub, timeout(2_000)).delta(follower, "{\"ghosting_probability\"");
+
+        // takipçi worker'ı bıraktıysa farklı prompt'lu iş lider bitmeden tamamlanır
+        UUID other = submit("fast");
+        verify(repository, timeout(2_000)).updateResult(eq(other), anyString(), eq(AnalysisStatus.ENRICHED));
+        verify(repository, never()).updateResult(eq(follower), anyString(), any());
+
+        releaseLeader.countDown();
+        verify(hub, timeout(2_000)).delta(follower, ":0.4,\"match_score\":70}");
+        verify(repository, timeout(2_000)).updateResult(eq(leader), anyString(), eq(AnalysisStatus.ENRICHED));
+        verify(repository, timeout(2_000)).updateResult(eq(follower), anyString(), eq(AnalysisStatus.ENRICHED));
+        verify(hf, times(2)).generateStreaming(anyString(), any()); // slow + fast; takipçi HF'e gitmedi
+        verify(promptBuilder, times(2)).recordSent(any());           // prompt metrikleri de sadece o ikisi için
+        assertEquals(1.0, registry.counter("ai.coalesced").count());
+    }
+
+    @Test
+    void waitingFollowerKeepsItsSlot() throws Exception {
+        service.shutdown();
+        // 2 worker, kuyruk yok: 2 slot
+        service = new AnalysisJobService(repository, mock(InsightEventBuffer.class), hf, promptBuilder, cache, hub,
+                registry, 2, 0, 0, true, 5_000);
+
+        UUID leader = submit("slow");
+        assertTrue(leaderStreaming.await(5, TimeUnit.SECONDS));
+        UUID follower = submit("slow");
+        verify(hub, timeout(2_000)).delta(follower, "{\"ghosting_probability\"");
+
+        // takipçi worker'ı bıraktı ama slotu sonuç yazılana kadar onda
+        assertFalse(service.tryReserve());
+
+        releaseLeader.countDown();
+        verify(repository, timeout(2_000)).updateResult(eq(leader), anyString(), eq(AnalysisStatus.ENRICHED));
+        verify(repository, timeout(2_000)).updateResult(eq(follower), anyString(), eq(AnalysisStatus.ENRICHED));
+        assertTrue(awaitReserve());
+    }
+
+    @Test
+    void failedLeaderIsNotCountedAsCoalesced() throws Exception {
+        UUID leader = submit("slow-fail");
+        assertTrue(leaderStreaming.await(5, TimeUnit.SECONDS));
+        UUID follower = submit("slow-fail");
+        verify(hub, timeout(2_000)).delta(follower, "{\"ghosting_probability\"");
+
+        releaseLeader.countDown();
+        verify(repository, timeout(2_000)).updateResult(eq(leader), anyString(), eq(AnalysisStatus.FAILED));
+        verify(repository, timeout(2_000)).updateResult(eq(follower), anyString(), eq(AnalysisStatus.FAILED));
+        assertEquals(0.0, registry.counter("ai.coalesced").count());
+    }
+
+    @Test
+    void cacheHitDoesNotRecordPromptMetrics() {
+        when(cache.get("cached")).thenReturn(AI_JSON);
+
+        UUID id = submit("cached");
+
+        verify(repository, timeout(2_000)).updateResult(eq(id), anyString(), eq(AnalysisStatus.ENRICHED));
+        verify(hf, never()).generateStreaming(anyString(), any());
+        verify(promptBuilder, never()).recordSent(any());
+    }
+
+    @Test
+    void followerFallsBackToEngineWhenLeaderTimesOut() throws Exception {
+        service.shutdown();
+        service = new AnalysisJobService(repository, mock(InsightEventBuffer.class), hf, promptBuilder, cache, hub,
+                registry, 2, 10, 0, true, 200);
+
+        UUID leader = submit("slow");
+        assertTrue(leaderStreaming.await(5, TimeUnit.SECONDS));
+        UUID follower = submit("slow");
+
+        verify(repository, timeout(2_000)).updateResult(eq(follower), anyString(), eq(AnalysisStatus.FAILED));
+        verify(repository, never()).updateResult(eq(leader), anyString(), any());
+
+        // takipçinin timeout'u liderin future'ını bozmaz
+        releaseLeader.countDown();
+        verify(repository, timeout(2_000)).updateResult(eq(leader), anyString(), eq(AnalysisStatus.ENRICHED));
+    }
+
+    // slot, updateResult'tan hemen sonra (future tamamlanınca) bırakılır
+    private boolean awaitReserve() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            if (service.tryReserve()) return true;
+            Thread.sleep(20);
+        }
+        return false;
+    }
+
+    private UUID submit(String jd) {
+        UUID id = UUID.randomUUID();
+        assertTrue(service.tryReserve());
+        service.submit(new AnalysisJobService.AnalysisJob(id, "cv", jd, "TR", null, null, engine()));
+        return id;
+    }
+
+    private static AnalysisResult engine() {
+        return new AnalysisResult(0.5, 60, 80, "JR", "Backend Developer", List.of(), List.of(), List.of(), List.of());
+    }
+}
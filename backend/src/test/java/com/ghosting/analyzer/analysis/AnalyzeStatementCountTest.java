@@ -0,0 +1,118 @@
+package com.ghosting.analyzer.analysis;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ghosting.analyzer.support.PostgresIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// POST /api/analyses ve /batch'in DB round trip sayısı (N+1 regresyonlarına karşı).
+// Beklenen: CV (sahiplik dahil) 1 select + metin 1 select + analyses insert (batch'te tek JDBC batch).
+// AI kuyruğu mock: arka plan zenginleştirmesi sayıma karışmaz.
+@AutoConfigureMockMvc
+class AnalyzeStatementCountTest extends PostgresIntegrationTest {
+
+    private static final String CV = """
+            Backend developer with six years of Java and Spring Boot experience.
+            Built REST APIs on PostgreSQL and Kafka, deployed with Docker and Kubernetes.
+            """;
+
+    private static final String JD = "Senior backend engineer: Java, Spring Boot, Kafka, PostgreSQL, Kubernetes, security.";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @MockitoBean
+    private AnalysisJobService analysisJobService;
+
+    private Statistics stats;
+    private String token;
+    private UUID cvId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(analysisJobService.tryReserve()).thenReturn(true);
+        stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.setStatisticsEnabled(true);
+
+        String email = "stmt-" + UUID.randomUUID() + "@test.local";
+        String body = om.writeValueAsString(Map.of("email", email, "password", "secret123"));
+        String auth = mvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        token = om.readTree(auth).path("accessToken").asText();
+
+        var file = new MockMultipartFile("file", "cv.txt", "text/plain", CV.getBytes(StandardCharsets.UTF_8));
+        String cv = mvc.perform(multipart("/api/cvs").file(file).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        cvId = UUID.fromString(om.readTree(cv).path("cvId").asText());
+
+        // ilk analiz tek seferlik işleri (şema kontrolü vb.) ölçümden çıkarır
+        analyze();
+    }
+
+    @Test
+    void singleAnalysisUsesThreeStatements() throws Exception {
+        stats.clear();
+        JsonNode res = analyze();
+
+        assertEquals("PENDING", res.path("status").asText());
+        assertEquals(3, stats.getPrepareStatementCount(), "select cv + select cv_contents + insert analyses");
+        assertEquals(1, stats.getEntityInsertCount());
+    }
+
+    @Test
+    void batchInsertsAllJobsInOneStatement() throws Exception {
+        String body = om.writeValueAsString(Map.of(
+                "cvId", cvId,
+                "jobs", List.of(
+                        Map.of("jobDescription", JD + " 1"),
+                        Map.of("jobDescription", JD + " 2"),
+                        Map.of("jobDescription", JD + " 3"),
+                        Map.of("jobDescription", JD + " 4"))));
+
+        stats.clear();
+        mvc.perform(post("/api/analyses/batch").contentType(MediaType.APPLICATION_JSON).content(body)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isAccepted());
+
+        assertEquals(3, stats.getPrepareStatementCount(), "select cv + select cv_contents + batched insert analyses");
+        assertEquals(4, stats.getEntityInsertCount());
+    }
+
+    private JsonNode analyze() throws Exception {
+        String body = om.writeValueAsString(Map.of("cvId", cvId, "jobDescription", JD));
+        String res = mvc.perform(post("/api/analyses").contentType(MediaType.APPLICATION_JSON).content(body)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        return om.readTree(res);
+    }
+}
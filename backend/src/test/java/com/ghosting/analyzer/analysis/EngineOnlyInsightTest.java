@@ -0,0 +1,120 @@
+package com.ghosting.analyzer.analysis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ghosting.analyzer.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Kotaya takılıp ENGINE_ONLY kaydedilen analizler de insight rollup'larına girer.
+// Kota 1 token ve pratikte dolmuyor: ilk analiz AI'lı (job servisi mock, olay üretmez), sonrakiler engine-only.
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "app.ai.rateLimit.mode=degrade",
+        "app.ai.rateLimit.capacity=1",
+        "app.ai.rateLimit.refillPerMinute=0.0001",
+        "app.insights.buffer.flushIntervalMs=100"
+})
+class EngineOnlyInsightTest extends PostgresIntegrationTest {
+
+    private static final String CV = "Backend developer with Java, Spring Boot and PostgreSQL experience.";
+    private static final String JD = "Backend engineer: Java, Spring Boot, Kafka, Kubernetes.";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @MockitoBean
+    private AnalysisJobService analysisJobService;
+
+    // paylaşılan şemada diğer testlerin satırlarından ayrışsın
+    private final String country = "E" + UUID.randomUUID().toString().substring(0, 6);
+    private String token;
+    private UUID cvId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(analysisJobService.tryReserve()).thenReturn(true);
+
+        String body = om.writeValueAsString(Map.of("email", "eo-" + UUID.randomUUID() + "@test.local", "password", "secret123"));
+        String auth = mvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        token = om.readTree(auth).path("accessToken").asText();
+
+        var file = new MockMultipartFile("file", "cv.txt", "text/plain", CV.getBytes(StandardCharsets.UTF_8));
+        String cv = mvc.perform(multipart("/api/cvs").file(file).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        cvId = UUID.fromString(om.readTree(cv).path("cvId").asText());
+    }
+
+    @Test
+    void rateLimitedAnalysisStillCountsInDailyRollup() throws Exception {
+        analyze().andExpect(status().isAccepted());
+        analyze().andExpect(status().isOk()).andExpect(jsonPath("$.status").value("ENGINE_ONLY"));
+
+        assertEquals(1, awaitRollupEvents(1));
+    }
+
+    @Test
+    void engineOnlyBatchItemsCountInDailyRollup() throws Exception {
+        analyze().andExpect(status().isAccepted()); // kotayı bitirir
+
+        String body = om.writeValueAsString(Map.of(
+                "cvId", cvId,
+                "jobs", List.of(
+                        Map.of("jobDescription", JD + " 1", "country", country),
+                        Map.of("jobDescription", JD + " 2", "country", country))));
+        mvc.perform(post("/api/analyses/batch").contentType(MediaType.APPLICATION_JSON).content(body)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk()) // AI'ya giden ilan yok: 202 değil
+                .andExpect(jsonPath("$.queued").value(0))
+                .andExpect(jsonPath("$.engineOnly").value(2));
+
+        assertEquals(2, awaitRollupEvents(2));
+    }
+
+    private ResultActions analyze() throws Exception {
+        String body = om.writeValueAsString(Map.of("cvId", cvId, "jobDescription", JD, "country", country));
+        return mvc.perform(post("/api/analyses").contentType(MediaType.APPLICATION_JSON).content(body)
+                .header("Authorization", "Bearer " + token));
+    }
+
+    // buffer arka planda flush eder; beklenen sayıya ulaşana kadar (en fazla ~5 sn) yokla
+    private long awaitRollupEvents(long expected) throws InterruptedException {
+        long events = 0;
+        for (int i = 0; i < 50 && events < expected; i++) {
+            Thread.sleep(100);
+            Long sum = jdbc.queryForObject(
+                    "select coalesce(sum(events), 0) from insight_daily_rollups where country = ?", Long.class, country);
+            events = sum == null ? 0 : sum;
+        }
+        return events;
+    }
+}
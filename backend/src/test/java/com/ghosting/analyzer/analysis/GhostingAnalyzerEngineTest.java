@@ -0,0 +1,43 @@
+package com.ghosting.analyzer.analysis;
+
+import com.ghosting.analyzer.cv.CvTokenIndex;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GhostingAnalyzerEngineTest {
+
+    private final GhostingAnalyzerEngine engine = new GhostingAnalyzerEngine();
+
+    @Test
+    void vocabularyWordsStayRequirementsWhenNoAliasMatched() {
+        String jd = "Backend role. Security and data are key: security reviews, data pipelines, security audits.";
+        var result = engine.analyze("Java developer building REST services.", jd);
+
+        assertTrue(result.missingSkills().contains("security"), result.missingSkills().toString());
+        assertTrue(result.missingSkills().contains("data"), result.missingSkills().toString());
+    }
+
+    @Test
+    void tokensOfMatchedAliasAreNotCountedTwice() {
+        String jd = "Spring Security required. Spring Security hardening.";
+        var result = engine.analyze("Built services with Spring Security.", jd);
+
+        assertFalse(result.missingSkills().contains("security"), result.missingSkills().toString());
+        assertFalse(result.missingSkills().contains("spring"), result.missingSkills().toString());
+    }
+
+    @Test
+    void indexedAndScannedPathsAgree() {
+        String cv = "Java, Spring Boot, Kafka and PostgreSQL. Security reviews.";
+        String jd = "Spring Boot, Kafka, security and data ownership. Kubernetes is a plus.";
+
+        var scanned = engine.analyze(cv, jd);
+        var indexed = engine.analyze(cv, CvTokenIndex.build(cv), jd);
+
+        assertEquals(scanned.matchScore(), indexed.matchScore());
+        assertEquals(scanned.missingSkills(), indexed.missingSkills());
+    }
+}
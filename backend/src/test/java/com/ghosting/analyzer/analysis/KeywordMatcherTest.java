@@ -0,0 +1,91 @@
+package com.ghosting.analyzer.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeywordMatcherTest {
+
+    @Test
+    void sharedSuffixesOnlyMatchWholeTokens() {
+        var m = KeywordMatcher.compile(List.of("script", "javascript", "typescript"));
+        var r = m.scan("JavaScript and TypeScript, no plain script? yes: script.");
+
+        assertEquals(1, r.count(1));
+        assertEquals(1, r.count(2));
+        assertEquals(2, r.count(0), "script inside javascript/typescript is not a token");
+    }
+
+    @Test
+    void overlappingPatternsEndingAtSamePosition() {
+        var m = KeywordMatcher.compile(List.of("node.js", "js", "node"));
+        var r = m.scan("node.js services, some js, a node");
+
+        assertEquals(1, r.count(0));
+        assertEquals(1, r.count(1), "js after the dot in node.js is not its own token");
+        assertEquals(1, r.count(2));
+    }
+
+    @Test
+    void prefixOfLongerKeywordIsFoundViaFailureLinks() {
+        var m = KeywordMatcher.compile(List.of("spring.boot", "boot", "spring"));
+        var r = m.scan("spring.bootstrap boot");
+
+        assertFalse(r.found(0), "spring.boot continues into bootstrap");
+        assertEquals(1, r.count(1));
+        assertFalse(r.found(2), "spring is followed by a dot and more token chars");
+    }
+
+    @Test
+    void wordBoundaryHitsAndMisses() {
+        var m = KeywordMatcher.compile(List.of("java", "c++", "c#", "c"));
+
+        assertTrue(m.scan("Java, Kotlin").found(0));
+        assertTrue(m.scan("(java)").found(0));
+        assertTrue(m.scan("Knows Java.").found(0), "trailing dot is a boundary");
+        assertFalse(m.scan("javascript").found(0));
+        assertFalse(m.scan("myjava").found(0));
+
+        var r = m.scan("C++ and C# but not C");
+        assertEquals(1, r.count(1));
+        assertEquals(1, r.count(2));
+        assertEquals(1, r.count(3), "c is only matched as a standalone token");
+    }
+
+    @Test
+    void turkishCharactersFoldLikeTheTokenIndex() {
+        var m = KeywordMatcher.compile(List.of("yazilim", "istanbul"));
+        var r = m.scan("YAZILIM ekibi, İstanbul");
+
+        assertTrue(r.found(0));
+        assertTrue(r.found(1));
+    }
+
+    @Test
+    void matchesAreReportedInTextOrderWithPositions() {
+        var m = KeywordMatcher.compile(List.of("kafka", "docker"));
+        String text = "Docker then Kafka then docker";
+        var matches = m.scan(text).matches();
+
+        assertEquals(3, matches.size());
+        assertEquals(new KeywordMatcher.Match(1, 0, 6), matches.get(0));
+        assertEquals("Kafka", text.substring(matches.get(1).start(), matches.get(1).end()));
+        assertEquals(1, matches.get(2).keyword());
+        assertEquals(2, m.scan(text).distinctFound());
+    }
+
+    @Test
+    void emptyAndOutOfAlphabetKeywordsNeverMatch() {
+        var m = KeywordMatcher.compile(List.of("", "c/c++", "sql"));
+        var r = m.scan("C/C++ and SQL");
+
+        assertFalse(r.found(0));
+        assertFalse(r.found(1));
+        assertTrue(r.found(2));
+        assertEquals(0, m.scan(null).distinctFound());
+    }
+}
@@ -0,0 +1,133 @@
+package com.ghosting.analyzer.analysis.hf;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Stream gövdesi deadline'ları: header'lar hemen gelip gövde takılınca watchdog kapatır ve breaker'a hata yazar.
+// postJson timeout'u exchange'i iptal eder (bağlantı kapanır).
+class HfRouterClientTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch clientClosed = new CountDownLatch(1);
+    private HttpServer server;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (server != null) server.stop(0);
+    }
+
+    @Test
+    void idleStreamIsClosedAndCountsAsFailure() throws Exception {
+        String url = serve(0, Long.MAX_VALUE);
+        // minCalls 1 -> tek hata devreyi açar
+        HfRouterClient client = client(30_000, 300, 1);
+        List<String> lines = new ArrayList<>();
+
+        long start = System.nanoTime();
+        RuntimeException e = assertThrows(RuntimeException.class, () -> client.streamLines(url, "k", "{}", lines::add));
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(e.getMessage().contains("idle"), e.getMessage());
+        assertEquals(List.of("data: first"), lines);
+        assertTrue(ms < 5_000, "took " + ms + " ms");
+        assertFalse(Thread.currentThread().isInterrupted(), "watchdog interrupt must not leak");
+        assertEquals(CircuitBreaker.State.OPEN, client.circuitState());
+    }
+
+    @Test
+    void slowButSteadyStreamHitsTotalDeadline() throws Exception {
+        String url = serve(100, Long.MAX_VALUE);
+        HfRouterClient client = client(800, 5_000, 1);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> client.streamLines(url, "k", "{}", line -> {}));
+
+        assertTrue(e.getMessage().contains("total"), e.getMessage());
+        assertEquals(CircuitBreaker.State.OPEN, client.circuitState());
+    }
+
+    @Test
+    void completedStreamIsASuccess() throws Exception {
+        String url = serve(10, 5);
+        HfRouterClient client = client(5_000, 1_000, 1);
+        List<String> lines = new ArrayList<>();
+
+        assertEquals(200, client.streamLines(url, "k", "{}", lines::add));
+        assertEquals(6, lines.size());
+        assertEquals(CircuitBreaker.State.CLOSED, client.circuitState());
+    }
+
+    @Test
+    void postJsonTimeoutCancelsTheExchange() throws Exception {
+        String url = serve(100, Long.MAX_VALUE); // gövde hiç bitmez: ofString tamamlanamaz
+        HfRouterClient client = client(500, 5_000, 1);
+
+        var call = client.postJson(url, "k", "{}");
+        var e = assertThrows(ExecutionException.class, () -> call.get(5, TimeUnit.SECONDS));
+
+        assertTrue(e.getCause() instanceof TimeoutException, String.valueOf(e.getCause()));
+        // iptal edilen exchange bağlantıyı kapatır: sunucunun yazmaları hata almaya başlar
+        assertTrue(clientClosed.await(5, TimeUnit.SECONDS), "exchange still running after timeout");
+        assertEquals(CircuitBreaker.State.OPEN, client.circuitState());
+    }
+
+    private HfRouterClient client(long callTimeoutMs, long streamIdleMs, int minCalls) {
+        return new HfRouterClient(1_000, callTimeoutMs, streamIdleMs, 4, 250,
+                10, minCalls, 0.5, 30_000, new SimpleMeterRegistry());
+    }
+
+    // "data: first" hemen, sonra her intervalMs'de bir satır (intervalMs 0 -> test bitene kadar sessiz)
+    private String serve(long intervalMs, long moreLines) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", ex -> {
+            try {
+                ex.getRequestBody().readAllBytes();
+                ex.getResponseHeaders().add("Content-Type", "text/event-stream");
+                ex.sendResponseHeaders(200, 0);
+                OutputStream out = ex.getResponseBody();
+                write(out, "data: first\n");
+                if (intervalMs == 0) {
+                    release.await(10, TimeUnit.SECONDS);
+                    return;
+                }
+                for (long i = 0; i < moreLines && release.getCount() > 0; i++) {
+                    Thread.sleep(intervalMs);
+                    write(out, "data: " + i + "\n");
+                }
+            } catch (IOException e) {
+                clientClosed.countDown(); // istemci kapattı
+            } catch (InterruptedException ignored) {
+                // test bitti
+            } finally {
+                ex.close();
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    private static void write(OutputStream out, String s) throws IOException {
+        out.write(s.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+}
@@ -0,0 +1,69 @@
+package com.ghosting.analyzer.cv;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ghosting.analyzer.support.PostgresIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// GET /api/cvs projeksiyonla okunur: Cv entity'si (ve token_index kolonu) yüklenmez, tek sorgu.
+@AutoConfigureMockMvc
+class CvListQueryTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Test
+    void listUsesProjectionWithoutLoadingCvs() throws Exception {
+        String email = "cvlist-" + UUID.randomUUID() + "@test.local";
+        String body = om.writeValueAsString(Map.of("email", email, "password", "secret123"));
+        String auth = mvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String token = om.readTree(auth).path("accessToken").asText();
+
+        for (int i = 0; i < 3; i++) {
+            String text = "Java developer, Spring Boot and Kafka. Version " + i;
+            var file = new MockMultipartFile("file", "cv" + i + ".txt", "text/plain", text.getBytes(StandardCharsets.UTF_8));
+            mvc.perform(multipart("/api/cvs").file(file).header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk());
+        }
+
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.setStatisticsEnabled(true);
+        stats.clear();
+
+        String res = mvc.perform(get("/api/cvs").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode list = om.readTree(res);
+
+        assertEquals(3, list.size());
+        assertEquals("cv2.txt", list.get(0).path("filename").asText(), "newest first");
+        assertEquals(1, stats.getPrepareStatementCount());
+        assertEquals(0, stats.getEntityLoadCount(), "list must not hydrate Cv entities");
+    }
+}
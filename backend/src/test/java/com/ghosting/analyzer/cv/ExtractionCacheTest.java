@@ -0,0 +1,57 @@
+package com.ghosting.analyzer.cv;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// L1 toplam karakterle de sınırlı: bütçe aşılınca en eski metinler çıkar, bütçeden büyük metin hiç girmez.
+class ExtractionCacheTest {
+
+    private final TextExtractor extractor = mock(TextExtractor.class);
+    private final CvRepository cvRepository = mock(CvRepository.class);
+    private final CvTextStore textStore = mock(CvTextStore.class);
+    private ExtractionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(cvRepository.findFirstByContentSha256(anyString())).thenReturn(Optional.empty());
+        when(extractor.extract(any())).thenAnswer(inv -> "x".repeat(((byte[]) inv.getArgument(0)).length));
+        cache = new ExtractionCache(extractor, cvRepository, textStore, 100, 1_000, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void evictsEldestWhenCharBudgetIsExceeded() {
+        cache.textOf(upload("a", 400));
+        cache.textOf(upload("b", 400));
+        cache.textOf(upload("c", 400)); // 1200 > 1000 -> a çıkar
+
+        assertEquals(2, cache.size());
+        assertEquals(800, cache.chars());
+
+        cache.textOf(upload("b", 400)); // hâlâ L1'de
+        cache.textOf(upload("a", 400)); // yeniden parse
+        verify(extractor, times(4)).extract(any());
+    }
+
+    @Test
+    void doesNotCacheTextLargerThanBudget() {
+        cache.textOf(upload("big", 1_500));
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.chars());
+    }
+
+    private static TextExtractor.Upload upload(String sha, int chars) {
+        return new TextExtractor.Upload(new byte[chars], sha);
+    }
+}
@@ -0,0 +1,109 @@
+package com.ghosting.analyzer.insight;
+
+import com.ghosting.analyzer.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// insight_events partition'ları gerçek Postgres'te: insight_events_ensure_partition (V5), compaction ve retention drop.
+// Zamanlanmış bakım test profilinde kapalı; run() burada elle çağrılır. Her test kendi ayını kullanır.
+class InsightPartitionMaintenanceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private InsightPartitionMaintenance maintenance;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private final YearMonth current = YearMonth.now(ZoneOffset.UTC);
+
+    @Test
+    void ensurePartitionCreatesMonthAndRoutesRows() {
+        YearMonth month = current.minusMonths(30);
+        String name = InsightPartitionMaintenance.partitionName(month);
+
+        assertTrue(maintenance.ensureMonth(month));
+        assertTrue(maintenance.partitions().contains(month));
+        assertFalse(jdbc.queryForObject("select insight_events_ensure_partition(?)", Boolean.class, Date.valueOf(month.atDay(1))));
+
+        UUID id = insert(month, "kafka");
+        assertEquals(name, jdbc.queryForObject(
+                "select tableoid::regclass::text from insight_events where id = ?", String.class, id));
+    }
+
+    @Test
+    void defaultPartitionIsGone() {
+        assertNull(jdbc.queryForObject("select to_regclass('insight_events_default')::text", String.class));
+        // partition'ı olmayan aya insert artık sessizce default'a düşmez
+        assertThrows(DataAccessException.class, () -> insert(YearMonth.of(1990, 1), "kafka"));
+    }
+
+    @Test
+    void runPremakesUpcomingMonths() {
+        maintenance.run(Instant.now());
+
+        var partitions = maintenance.partitions();
+        for (int i = 0; i <= 3; i++) assertTrue(partitions.contains(current.plusMonths(i)), current.plusMonths(i).toString());
+    }
+
+    @Test
+    void runCompactsThenDropsPartitionsPastRetention() {
+        YearMonth month = current.minusMonths(20);
+        String name = InsightPartitionMaintenance.partitionName(month);
+        assertTrue(maintenance.ensureMonth(month));
+        insert(month, "kafka");
+        insert(month, "kafka");
+        insert(month, "docker");
+
+        maintenance.run(Instant.now());
+
+        assertNull(jdbc.queryForObject("select to_regclass(?)::text", String.class, name));
+        assertFalse(maintenance.partitions().contains(month));
+
+        Date m = Date.valueOf(month.atDay(1));
+        assertEquals(3L, jdbc.queryForObject("select events from insight_compactions where month = ?", Long.class, m));
+        assertEquals(3L, jdbc.queryForObject(
+                "select sum(events) from insight_monthly_summaries where month = ?", Long.class, m));
+        assertEquals(2L, jdbc.queryForObject(
+                "select events from insight_monthly_skills where month = ? and skill = 'kafka'", Long.class, m));
+    }
+
+    @Test
+    void runKeepsPartitionsWithinRetention() {
+        YearMonth month = current.minusMonths(2);
+        assertTrue(maintenance.ensureMonth(month));
+        UUID id = insert(month, "java");
+
+        maintenance.run(Instant.now());
+
+        // kapanmış ay özetlenir ama ham satırlar retention bitene kadar kalır
+        assertTrue(maintenance.partitions().contains(month));
+        assertEquals(1, jdbc.queryForObject(
+                "select count(*) from insight_compactions where month = ?", Integer.class, Date.valueOf(month.atDay(1))));
+        assertEquals(1, jdbc.queryForObject("select count(*) from insight_events where id = ?", Integer.class, id));
+    }
+
+    private UUID insert(YearMonth month, String skill) {
+        UUID id = UUID.randomUUID();
+        OffsetDateTime at = month.atDay(10).atStartOfDay().atOffset(ZoneOffset.UTC);
+        jdbc.update("""
+                insert into insight_events (id, country, role_guess, seniority_guess, match_score, ats_readability_score, missing_skills, created_at)
+                values (?, 'TR', 'Backend Developer', 'JR', 60, 80, cast(? as text[]), ?)
+                """, id, "{" + skill + "}", at);
+        return id;
+    }
+}
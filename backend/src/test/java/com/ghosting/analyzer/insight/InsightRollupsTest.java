@@ -0,0 +1,101 @@
+package com.ghosting.analyzer.insight;
+
+import com.ghosting.analyzer.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Rollup'lar gerçek Postgres'te: iki node'un flush'ları birbirini ezmez, topSkills tarih aralığına uyar,
+// budama günlük top-K'yı korur.
+class InsightRollupsTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    // her test kendi ülkesiyle: paylaşılan şemada diğer testlerin satırlarından etkilenmez
+    private final String country = "T" + UUID.randomUUID().toString().substring(0, 6);
+
+    @Test
+    void flushesFromTwoNodesAddUp() {
+        // ayrı instance'lar = ayrı node'lar (bellekte ortak durum yok)
+        InsightRollups nodeA = new InsightRollups(jdbc);
+        InsightRollups nodeB = new InsightRollups(jdbc);
+        LocalDate day = LocalDate.of(2026, 3, 10);
+
+        nodeA.apply(List.of(event(day, 70, "kafka", "docker"), event(day, 50, "kafka")));
+        nodeB.apply(List.of(event(day, 90, "kafka")));
+        nodeA.apply(List.of(event(day, 60, "docker")));
+
+        var skills = nodeB.topSkills(country, null, day, day, 10);
+        assertEquals(List.of(new InsightRollups.Skill("kafka", 3), new InsightRollups.Skill("docker", 2)), skills);
+
+        var daily = nodeB.daily(country, null, day, day);
+        assertEquals(1, daily.size());
+        assertEquals(4, daily.get(0).events());
+        assertEquals(270, daily.get(0).matchSum());
+    }
+
+    @Test
+    void topSkillsOnlyCountsTheRequestedPeriod() {
+        InsightRollups rollups = new InsightRollups(jdbc);
+        LocalDate jan = LocalDate.of(2026, 1, 15);
+        LocalDate feb = LocalDate.of(2026, 2, 15);
+
+        rollups.apply(List.of(event(jan, 50, "terraform"), event(jan, 50, "terraform"), event(jan, 50, "aws")));
+        rollups.apply(List.of(event(feb, 50, "aws"), event(feb, 50, "aws"), event(feb, 50, "java")));
+
+        assertEquals(List.of(new InsightRollups.Skill("terraform", 2), new InsightRollups.Skill("aws", 1)),
+                rollups.topSkills(country, null, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31), 10));
+        assertEquals(List.of(new InsightRollups.Skill("aws", 2), new InsightRollups.Skill("java", 1)),
+                rollups.topSkills(country, null, LocalDate.of(2026, 2, 1), LocalDate.of(2026, 2, 28), 10));
+        assertEquals(new InsightRollups.Skill("aws", 3),
+                rollups.topSkills(country, null, jan, feb, 1).get(0));
+    }
+
+    @Test
+    void pruneKeepsTopSkillsPerCountryRoleDay() {
+        InsightRollups rollups = new InsightRollups(jdbc);
+        LocalDate day = LocalDate.of(2019, 6, 1);
+
+        rollups.apply(List.of(
+                event(day, 50, "kafka", "docker", "aws", "go"),
+                event(day, 50, "kafka", "docker", "aws"),
+                event(day, 50, "kafka", "docker"),
+                event(day, 50, "kafka")));
+
+        assertEquals(2, rollups.pruneSkills(day, 2));
+        assertEquals(List.of(new InsightRollups.Skill("kafka", 4), new InsightRollups.Skill("docker", 3)),
+                rollups.topSkills(country, null, day, day, 10));
+        assertEquals(0, rollups.pruneSkills(day, 2)); // idempotent
+    }
+
+    @Test
+    void expireSkillsDropsOldDays() {
+        InsightRollups rollups = new InsightRollups(jdbc);
+        LocalDate old = LocalDate.of(2018, 3, 1);
+
+        rollups.apply(List.of(event(old, 50, "kafka")));
+        rollups.expireSkills(old.plusDays(1));
+
+        assertEquals(List.of(), rollups.topSkills(country, null, old, old, 10));
+    }
+
+    private InsightEvent event(LocalDate day, int match, String... missing) {
+        return InsightEvent.builder()
+                .country(country)
+                .roleGuess("Backend Developer")
+                .seniorityGuess("JR")
+                .matchScore(match)
+                .atsReadabilityScore(80)
+                .missingSkills(missing)
+                .createdAt(day.atTime(12, 0).toInstant(ZoneOffset.UTC))
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.ghosting.analyzer.security;
+
+import com.ghosting.analyzer.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// /actuator/health açık; metrics sadece app.security.adminUserIds'teki kullanıcılara.
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "app.security.adminUserIds=" + ActuatorSecurityTest.ADMIN_ID)
+class ActuatorSecurityTest extends PostgresIntegrationTest {
+
+    static final String ADMIN_ID = "00000000-0000-0000-0000-0000000000ad";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Test
+    void healthIsPublic() throws Exception {
+        mvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        mvc.perform(get("/actuator/health/liveness")).andExpect(status().isOk());
+    }
+
+    @Test
+    void metricsAreClosedToAnonymousAndRegularUsers() throws Exception {
+        mvc.perform(get("/actuator/metrics")).andExpect(status().isForbidden());
+
+        String user = jwtService.generateAccessToken(UUID.randomUUID().toString(), "user@test.local");
+        mvc.perform(get("/actuator/metrics").header("Authorization", "Bearer " + user)).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void metricsAreOpenToAdmins() throws Exception {
+        String admin = jwtService.generateAccessToken(ADMIN_ID, "admin@test.local");
+        mvc.perform(get("/actuator/metrics").header("Authorization", "Bearer " + admin)).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,50 @@
+package com.ghosting.analyzer.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Doğrulanmış token cache'i: boyut sınırı aşılmaz, süresi dolan kayıtlar insert'te süpürülür.
+class JwtServiceTest {
+
+    private static final String SECRET = "test-secret-which-must-be-at-least-64-characters-long-for-hs512-0123456789";
+
+    @Test
+    void cacheStaysWithinMaxEntries() {
+        JwtService jwt = new JwtService(SECRET, 60, 3);
+
+        for (int i = 0; i < 20; i++) {
+            String userId = UUID.randomUUID().toString();
+            String token = jwt.generateAccessToken(userId, i + "@test.local");
+            assertEquals(userId, jwt.parse(token).userId());
+            assertEquals(userId, jwt.parse(token).userId()); // cache'ten
+        }
+        assertTrue(jwt.cacheSize() <= 3, "size " + jwt.cacheSize());
+    }
+
+    @Test
+    void expiredEntriesAreSweptOnInsert() throws InterruptedException {
+        JwtService jwt = new JwtService(SECRET, 60, 1);
+        String shortLived = Jwts.builder()
+                .subject("short")
+                .expiration(new Date(System.currentTimeMillis() + 2_000)) // exp saniye hassasiyetinde
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertEquals("short", jwt.parse(shortLived).userId());
+        Thread.sleep(2_100);
+
+        jwt.parse(jwt.generateAccessToken("long", "long@test.local"));
+        assertEquals(1, jwt.cacheSize());
+        assertThrows(ExpiredJwtException.class, () -> jwt.parse(shortLived));
+    }
+}
@@ -0,0 +1,19 @@
+package com.ghosting.analyzer.support;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+// Flyway + ddl-auto ile kurulan gerçek şema üzerinde Spring context'i.
+// Container'ı Spring başlatır (@ServiceConnection) ve JVM sonuna kadar açık kalır: cache'lenen context'ler
+// aynı portu görür (@Container sınıf sonunda durdururdu). Docker yoksa bu testler atlanır.
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresIntegrationTest {
+
+    @ServiceConnection
+    protected static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+}
@@ -0,0 +1,106 @@
+package com.ghosting.analyzer.text;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SkillDictionaryTest {
+
+    private final SkillDictionary dict = SkillDictionary.compile(List.of(
+            new SkillDictionary.Skill("spring", "Spring", List.of("spring framework")),
+            new SkillDictionary.Skill("spring-boot", "Spring Boot", List.of("springboot")),
+            new SkillDictionary.Skill("spring-security", "Spring Security", List.of()),
+            new SkillDictionary.Skill("dotnet", ".NET", List.of(".net", ".net core", "asp.net core")),
+            new SkillDictionary.Skill("nodejs", "Node.js", List.of("node.js", "node js")),
+            new SkillDictionary.Skill("ci-cd", "CI/CD", List.of("continuous integration", "continuous delivery"))
+    ));
+
+    @Test
+    void longestAliasWinsAtSamePosition() {
+        var hits = dict.scan("Spring Boot services");
+        assertEquals(1, hits.count(index("spring-boot")));
+        assertEquals(0, hits.count(index("spring")), "spring is consumed by spring boot");
+    }
+
+    @Test
+    void shorterAliasStillMatchesOnItsOwn() {
+        var hits = dict.scan("Spring Boot, Spring Framework and plain Spring");
+        assertEquals(1, hits.count(index("spring-boot")));
+        assertEquals(2, hits.count(index("spring")));
+    }
+
+    @Test
+    void unknownTokenBreaksPhrase() {
+        var hits = dict.scan("spring rocks boot");
+        assertEquals(1, hits.count(index("spring")));
+        assertFalse(hits.found(index("spring-boot")));
+    }
+
+    @Test
+    void multiWordAliasesResolveToOneSkill() {
+        var hits = dict.scan("We run ASP.NET Core and .NET Core with continuous integration.");
+        assertEquals(2, hits.count(index("dotnet")));
+        assertEquals(1, hits.count(index("ci-cd")));
+    }
+
+    @Test
+    void dashedIdMatchesAsSeparateTokens() {
+        assertTrue(dict.scan("ci-cd pipelines").found(index("ci-cd")));
+        assertTrue(dict.scan("CI CD pipelines").found(index("ci-cd")));
+        assertTrue(dict.scan("spring-boot").found(index("spring-boot")));
+        assertTrue(dict.scan("SpringBoot").found(index("spring-boot")));
+    }
+
+    @Test
+    void sentenceDotsAreTrimmedButDottedAliasesKept() {
+        assertTrue(dict.scan("Backend in Node.js.").found(index("nodejs")));
+        assertTrue(dict.scan("Also .NET").found(index("dotnet")));
+    }
+
+    @Test
+    void rankedByCountThenFirstSeen() {
+        var hits = dict.scan("node js, spring boot, node.js, .net");
+        assertArrayEquals(new int[]{index("nodejs"), index("spring-boot"), index("dotnet")}, hits.ranked());
+    }
+
+    @Test
+    void coversOnlyTokensOfMatchedAliases() {
+        var alone = dict.scan("Strong security mindset");
+        assertFalse(alone.covers("security"), "security is in the vocabulary but no alias matched");
+
+        var matched = dict.scan("Spring Security experience.");
+        assertTrue(matched.covers("security"));
+        assertTrue(matched.covers("spring"));
+        assertFalse(matched.covers("experience"));
+        assertFalse(matched.covers("boot"));
+    }
+
+    @Test
+    void ambiguousAliasIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SkillDictionary.compile(List.of(
+                new SkillDictionary.Skill("a", "A", List.of("same thing")),
+                new SkillDictionary.Skill("b", "B", List.of("same thing")))));
+    }
+
+    @Test
+    void bundledTaxonomyLoads() {
+        SkillDictionary bundled = SkillDictionary.bundled();
+        assertTrue(bundled.size() > 100);
+        int[] ranked = bundled.scan("Spring Boot and k8s").ranked();
+        assertEquals(2, ranked.length);
+        assertEquals("spring-boot", bundled.skill(ranked[0]).id());
+    }
+
+    private int index(String id) {
+        for (int i = 0; i < dict.size(); i++) {
+            if (dict.skill(i).id().equals(id)) return i;
+        }
+        throw new IllegalArgumentException(id);
+    }
+}
@@ -25,9 +25,25 @@ type AnalyzeResponse = {
   analysisId: string;
   cvId: string;
   resultJson: string;
+  status: "PENDING" | "ENRICHED" | "FAILED" | "ENGINE_ONLY" | null;
   createdAt: string;
 };
 
+type AnalysisSummary = {
+  analysisId: string;
+  cvId: string;
+  jobTitle: string | null;
+  company: string | null;
+  country: string;
+  status: "PENDING" | "ENRICHED" | "FAILED" | "ENGINE_ONLY" | null;
+  createdAt: string;
+};
+
+type AnalysisPage = {
+  items: AnalysisSummary[];
+  nextCursor: string | null;
+};
+
 /* ========= HELPERS ========= */
 
 function parseResult(json: string) {
@@ -38,8 +54,11 @@ function parseResult(json: string) {
   }
 }
 
-function formatAnalysisTitle(index: number) {
-  return `Analiz #${index + 1}`;
+const sleep = (ms: number) => new Promise((r) => setTimeout(r, ms));
+
+function formatAnalysisTitle(h: AnalysisSummary, index: number) {
+  const label = [h.jobTitle, h.company].filter(Boolean).join(" @ ");
+  return label || `Analiz #${index + 1}`;
 }
 
 /* ========= PAGE ========= */
@@ -50,7 +69,8 @@ export default function DashboardPage() {
   const [jobDescription, setJobDescription] = useState("");
 
   const [result, setResult] = useState<any>(null);
-  const [history, setHistory] = useState<AnalyzeResponse[]>([]);
+  const [history, setHistory] = useState<AnalysisSummary[]>([]);
+  const [historyCursor, setHistoryCursor] = useState<string | null>(null);
 
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState("");
@@ -74,15 +94,30 @@ export default function DashboardPage() {
     }
   }
 
-  async function loadHistory() {
+  // cursor yoksa ilk sayfa (listeyi sıfırlar), varsa sonuna ekler
+  async function loadHistory(cursor?: string) {
     try {
-      const res = await api.get("/api/analyses");
-      setHistory(res.data);
+      const res = await api.get("/api/analyses", {
+        params: cursor ? { cursor } : {},
+      });
+      const page: AnalysisPage = res.data;
+      setHistory((prev) => (cursor ? [...prev, ...page.items] : page.items));
+      setHistoryCursor(page.nextCursor);
     } catch {
       /* ignore */
     }
   }
 
+  // liste sadece özet döner; tam sonuç tıklanınca çekilir
+  async function openAnalysis(analysisId: string) {
+    try {
+      const res = await api.get(`/api/analyses/${analysisId}`);
+      setResult(parseResult(res.data.resultJson));
+    } catch {
+      setError("Analiz alınamadı");
+    }
+  }
+
   /* ===== ACTIONS ===== */
 
   async function uploadCv(file: File) {
@@ -112,12 +147,26 @@ export default function DashboardPage() {
         jobDescription,
       });
 
-      const parsed = parseResult(res.data.resultJson);
-      setResult(parsed);
+      // engine skorları hemen gelir, AI yorumu arka planda tamamlanır
+      let data: AnalyzeResponse = res.data;
+      setResult(parseResult(data.resultJson));
+
+      for (let i = 0; i < 60 && data.status === "PENDING"; i++) {
+        await sleep(2000);
+        data = (await api.get(`/api/analyses/${data.analysisId}`)).data;
+      }
+      setResult(parseResult(data.resultJson));
 
       await loadHistory();
     } catch (e: any) {
-      setError("Analyze başarısız");
+      const retryAfter = e?.response?.headers?.["retry-after"];
+      setError(
+        e?.response?.status === 429
+          ? retryAfter
+            ? `Analiz limitine ulaştın, ${retryAfter} sn sonra tekrar dene`
+            : "Sistem yoğun, biraz sonra tekrar dene"
+          : "Analyze başarısız"
+      );
     } finally {
       setLoading(false);
     }
@@ -313,7 +362,7 @@ export default function DashboardPage() {
           {history.map((h, i) => (
             <div
               key={h.analysisId}
-              onClick={() => setResult(parseResult(h.resultJson))}
+              onClick={() => openAnalysis(h.analysisId)}
               style={{
                 padding: 12,
                 borderRadius: 12,
@@ -323,12 +372,18 @@ export default function DashboardPage() {
                 background: "#0c1426",
               }}
             >
-              <b>{formatAnalysisTitle(i)}</b>
+              <b>{formatAnalysisTitle(h, i)}</b>
               <div style={{ opacity: 0.6, fontSize: 12 }}>
                 {new Date(h.createdAt).toLocaleString()}
               </div>
             </div>
           ))}
+
+          {historyCursor && (
+            <Button variant="ghost" onClick={() => loadHistory(historyCursor)}>
+              Daha fazla
+            </Button>
+          )}
         </Card>
       </Container>
     </Page>